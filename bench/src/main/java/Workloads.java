@@ -0,0 +1,136 @@
+/**
+ * Description: Benchmark workloads
+ * The work measured by the benchmarks in the bench package. It lives in the default package next to the game (which the
+ * benchmarks can't import from), and is handed over as a LongSupplier - running it does one measured operation, and its result
+ * is only there so the work can't be optimized away. Workloads that use up their board also implement Runnable, which puts the
+ * board back the way it was outside of the measured time.
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.function.LongSupplier;
+
+public class Workloads {
+	private static final long SEED = 42; //every board is made from this, so runs can be compared
+
+	//places the mines on a cols x rows board with the given density. every run uses a new seed
+	public static LongSupplier generate(int cols, int rows, double density) {
+		Board board = new Board(cols, rows, mines(cols, rows, density), SEED);
+		int centre = rows / 2 * cols + cols / 2;
+		return new LongSupplier() {
+			private long seed = SEED;
+
+			@Override
+			public long getAsLong() {
+				board.generate(centre, seed++);
+				return board.getCount(centre);
+			}
+		};
+	}
+
+	//the first click on a side x side board with a single mine in it, which opens every other cell in one go
+	public static LongSupplier cascade(int side) {
+		Board board = new Board(side, side, 1, SEED);
+		int centre = side / 2 * side + side / 2;
+		board.generate(centre);
+		return new Reset(board) {
+			@Override
+			public long getAsLong() {
+				return board.open(centre);
+			}
+		};
+	}
+
+	//chords every number on a board whose mines are all flagged and whose numbers are all open, which opens the rest of the board
+	public static LongSupplier chord(int side, double density) {
+		Board board = new Board(side, side, mines(side, side, density), SEED);
+		board.generate(side / 2 * side + side / 2);
+		IntList numbers = new IntList();
+		for (int i = 0; i < board.size(); i++) {
+			if (!board.isMine(i) && board.getCount(i) > 0)
+				numbers.add(i);
+		}
+		return new Reset(board) {
+			@Override
+			public void run() {
+				super.run();
+				for (int i = 0; i < board.size(); i++) {
+					if (board.isMine(i))
+						board.flag(i);
+				}
+				for (int i = 0; i < numbers.size(); i++) {
+					board.open(numbers.get(i));
+				}
+			}
+
+			@Override
+			public long getAsLong() {
+				long opened = 0;
+				for (int i = 0; i < numbers.size(); i++) {
+					opened += board.chord(numbers.get(i));
+				}
+				return opened;
+			}
+		};
+	}
+
+	//visits the neighbours of every cell on a side x side board
+	public static LongSupplier neighbours(int side) {
+		Board board = new Board(side, side, mines(side, side, 0.2), SEED);
+		board.generate(0);
+		int[] around = new int[8];
+		return () -> {
+			long sum = 0;
+			for (int i = 0; i < board.size(); i++) {
+				int n = board.neighbours(i, around);
+				for (int j = 0; j < n; j++) {
+					sum += board.getCount(around[j]);
+				}
+			}
+			return sum;
+		};
+	}
+
+	//paints a width x height view of a side x side board that is partly played, with cells of cellSize pixels. this is what a full updatePanel repaint costs
+	public static LongSupplier paint(int side, int cellSize, int width, int height) {
+		Board board = new Board(side, side, mines(side, side, 0.15), SEED);
+		board.open(side / 2 * side + side / 2);
+		for (int i = 0; i < board.size(); i += 7) { //open a few more cells here and there so every kind of cell gets painted
+			if (!board.isMine(i))
+				board.open(i);
+			else if (i % 2 == 0)
+				board.flag(i);
+		}
+		BoardPanel panel = new BoardPanel(board);
+		while (panel.getCellSize() > cellSize) {
+			panel.zoom(-1, new Point(0, 0));
+		}
+		panel.setSize(panel.getPreferredSize());
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		return () -> {
+			Graphics g = image.createGraphics();
+			g.setClip(0, 0, width, height);
+			panel.paint(g);
+			g.dispose();
+			return image.getRGB(width / 2, height / 2);
+		};
+	}
+
+	private static int mines(int cols, int rows, double density) {
+		return (int) Math.max(1, Math.min(Board.maxMines(cols, rows), Math.round(cols * rows * density)));
+	}
+
+	//a workload that plays on its board, so the board has to be reset before every run
+	private abstract static class Reset implements LongSupplier, Runnable {
+		protected final Board board;
+
+		Reset(Board board) {
+			this.board = board;
+		}
+
+		@Override
+		public void run() {
+			board.reset();
+		}
+	}
+}
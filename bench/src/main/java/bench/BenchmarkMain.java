@@ -0,0 +1,26 @@
+/**
+ * Description: Benchmark launcher
+ * Same as JMH's own main (it takes all the same options), except the GC profiler is always on so every benchmark reports how
+ * much it allocates. Save results with "-rf json -rff results.json" to compare them between changes.
+ */
+
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkMain {
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions options = new CommandLineOptions(args);
+		boolean hasGC = options.getProfilers().stream().anyMatch(p -> p.getKlass().equals("gc") || p.getKlass().equals(GCProfiler.class.getName()));
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(options);
+		if (!hasGC)
+			builder.addProfiler(GCProfiler.class);
+		new Runner(builder.build()).run();
+	}
+}
@@ -0,0 +1,44 @@
+/**
+ * Description: Chording
+ * Chords every number on a board with all the mines flagged - counting the flags around each number and opening the rest,
+ * the same as a left click on an open number does.
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChordBenchmark {
+	@Param({"32", "256", "1024"})
+	public int side;
+
+	@Param({"0.15", "0.2"})
+	public double density;
+
+	private LongSupplier workload;
+	private Runnable reset;
+
+	@Setup
+	public void setup() {
+		workload = Workload.create("chord", side, density);
+		reset = Workload.reset(workload);
+	}
+
+	@Setup(Level.Invocation) //every invocation chords a whole board, so this is cheap next to it
+	public void reset() {
+		reset.run();
+	}
+
+	@Benchmark
+	public long chordAll() {
+		return workload.getAsLong();
+	}
+}
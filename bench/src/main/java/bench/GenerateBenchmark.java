@@ -0,0 +1,37 @@
+/**
+ * Description: Mine placement
+ * Board.generate across board sizes and mine densities - placing the mines and then counting every cell's neighbours.
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerateBenchmark {
+	@Param({"9x9", "32x16", "1000x1000", "5000x5000"})
+	public String size;
+
+	@Param({"0.15", "0.2", "0.5", "0.8"})
+	public double density;
+
+	private LongSupplier workload;
+
+	@Setup
+	public void setup() {
+		String[] parts = size.split("x");
+		workload = Workload.create("generate", Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), density);
+	}
+
+	@Benchmark
+	public long generate() {
+		return workload.getAsLong();
+	}
+}
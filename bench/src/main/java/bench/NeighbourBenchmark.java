@@ -0,0 +1,33 @@
+/**
+ * Description: Neighbour iteration
+ * Board.neighbours over every cell of a board, the loop under generation, opening, chording and the solver.
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NeighbourBenchmark {
+	@Param({"32", "1024"})
+	public int side;
+
+	private LongSupplier workload;
+
+	@Setup
+	public void setup() {
+		workload = Workload.create("neighbours", side);
+	}
+
+	@Benchmark
+	public long neighbours() {
+		return workload.getAsLong();
+	}
+}
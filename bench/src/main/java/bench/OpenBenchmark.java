@@ -0,0 +1,40 @@
+/**
+ * Description: Worst case open
+ * A first click that opens the whole board at once, which is as much work as a single click can ever be.
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenBenchmark {
+	@Param({"64", "512", "2048"})
+	public int side;
+
+	private LongSupplier workload;
+	private Runnable reset;
+
+	@Setup
+	public void setup() {
+		workload = Workload.create("cascade", side);
+		reset = Workload.reset(workload);
+	}
+
+	@Setup(Level.Invocation) //fine here, a single open takes far longer than the setup overhead
+	public void reset() {
+		reset.run();
+	}
+
+	@Benchmark
+	public long open() {
+		return workload.getAsLong();
+	}
+}
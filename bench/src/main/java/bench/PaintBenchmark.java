@@ -0,0 +1,36 @@
+/**
+ * Description: Board painting
+ * A full repaint of a 1000 x 700 view of a partly played board, drawn headless into an image - what updatePanel costs.
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+	@Param({"100", "2000"})
+	public int side;
+
+	@Param({"8", "24", "50"})
+	public int cellSize;
+
+	private LongSupplier workload;
+
+	@Setup
+	public void setup() {
+		workload = Workload.create("paint", side, cellSize, 1000, 700);
+	}
+
+	@Benchmark
+	public long paint() {
+		return workload.getAsLong();
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ * Description: Bridge to the workloads
+ * The benchmarks have to be in a package and the game isn't, so they can't call Workloads directly. This looks a workload up
+ * once by name when the benchmark is set up; after that the benchmark only calls a LongSupplier, which the JIT inlines like
+ * any other call.
+ */
+
+package bench;
+
+import java.lang.reflect.Method;
+import java.util.function.LongSupplier;
+
+final class Workload {
+	private Workload() {
+	}
+
+	//the result of calling Workloads.name(args)
+	static LongSupplier create(String name, Object... args) {
+		try {
+			for (Method method : Class.forName("Workloads").getMethods()) {
+				if (method.getName().equals(name) && method.getParameterCount() == args.length)
+					return (LongSupplier) method.invoke(null, args);
+			}
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not set up workload " + name, e);
+		}
+		throw new IllegalArgumentException("No such workload: " + name);
+	}
+
+	//what has to run before every call of workload, or null if nothing does
+	static Runnable reset(LongSupplier workload) {
+		return workload instanceof Runnable ? (Runnable) workload : null;
+	}
+}
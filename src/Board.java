@@ -0,0 +1,636 @@
+/**
+ * Description: Headless board engine
+ * Holds the board model and the rules of the game (generate, open, flag, chord, win/loss) with no AWT/Swing dependency,
+ * so games can be run without a display. The Minesweeper frame is just a view over one of these.
+ *
+ * Every cell is packed into a single byte: the low 4 bits hold the number of adjacent mines, and the upper bits mark
+ * whether the cell is a mine, has been revealed, or has been flagged. A 10,000 x 10,000 board is therefore 100MB.
+ * The cells are kept in a ByteBuffer rather than an array, so a board can also be played straight out of a save file that is
+ * mapped into memory (see SaveFile) without ever being loaded onto the heap.
+ */
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class Board {
+	public static final int COUNT_MASK = 0x0F, MINE = 0x10, REVEALED = 0x20, FLAG = 0x40; //bit layout of a packed cell
+
+	public static final int MAX_CELLS = Integer.MAX_VALUE - 8; //largest board that still fits in one array
+	private static final int BLANK_MASK = MINE | REVEALED | FLAG | COUNT_MASK; //a cell with none of these bits set is an unopened, unflagged empty cell
+
+	//values returned by view(). These are the same codes the original currentBoardState array used: unopened cells are -1, opened cells are their number, mines are 9, flags are 10 and wrongly placed flags are 11
+	public static final int UNOPENED = -1, SHOWN_MINE = 9, SHOWN_FLAG = 10, SHOWN_WRONG_FLAG = 11;
+	static final int STATE_GENERATED = 1, STATE_PREGENERATED = 2, STATE_DEAD = 4, STATE_SOLVED = 8; //bits of getState()
+
+	private final int cols, rows, mineCount; //size of the board and the amount of mines on it
+	private final ByteBuffer cells; //one packed byte per cell, indexed row by row just like the old boardState array
+	private int minesLeft, cellsOpened; //minesLeft is mines minus flags placed, cellsOpened is the amount of non-mine cells that have been revealed
+	private long seed; //seed the mines are (or will be) placed with
+	private boolean dead = false, solved = false, generated = false; //whether the player has died, has solved the board, or has made their first click respectively
+	private boolean pregenerated = false; //whether the mines were placed ahead of time around the middle of the board, to be moved under the first click (see pregenerate)
+	private final IntList work = new IntList(); //scratch stack reused by every flood fill
+	private final int[] adjacent = new int[8], safeZone = new int[9]; //scratch for neighbour walks and for generate's safe zone, so neither allocates
+	private Recorder recorder; //told about every move, if set
+	private Listener listener; //told how long the board's work took, if set
+
+	//gets told how long generating and cascades take, e.g. to keep metrics on them. nothing is timed unless one is set
+	public interface Listener {
+		void generated(int cells, int mines, long nanos);
+
+		void cascaded(int cells, long nanos); //cells is the amount opened by the cascade
+
+		//boards were thrown away and rolled again count times before one was kept (see BoardPool and NoGuessGenerator)
+		default void rerolled(String reason, long count) {
+		}
+	}
+
+	//gets told about every move that changed the board, after it's been made. moves that do nothing (like opening an open cell) aren't passed on
+	public interface Recorder {
+		void record(int type, int cell); //type is one of the Journal move types
+	}
+
+	//a copy of everything about the board at some point of a game, to go back to later with restore()
+	public static class Snapshot {
+		private final byte[] cells;
+		private final int minesLeft, cellsOpened, state;
+		private final long seed;
+
+		private Snapshot(byte[] cells, int minesLeft, int cellsOpened, int state, long seed) {
+			this.cells = cells;
+			this.minesLeft = minesLeft;
+			this.cellsOpened = cellsOpened;
+			this.state = state;
+			this.seed = seed;
+		}
+
+		public int bytes() { //roughly how much memory this takes
+			return cells.length + 32;
+		}
+	}
+
+	public Board(int cols, int rows, int mineCount) {
+		this(cols, rows, mineCount, ThreadLocalRandom.current().nextLong());
+	}
+
+	public Board(int cols, int rows, int mineCount, long seed) {
+		this(cols, rows, mineCount, seed, null);
+	}
+
+	//a board whose cells live in cells instead of on the heap, e.g. a save file mapped into memory. nothing is copied, so every move goes straight into cells.
+	//the cells are taken as they are - use restoreState to put the rest of the game back
+	Board(int cols, int rows, int mineCount, long seed, ByteBuffer cells) {
+		if (cols <= 0 || rows <= 0 || (long) cols * rows > MAX_CELLS)
+			throw new IllegalArgumentException("Invalid board size: " + cols + " x " + rows);
+		if (mineCount <= 0 || mineCount > maxMines(cols, rows))
+			throw new IllegalArgumentException("Invalid amount of mines: " + mineCount);
+		if (cells != null && cells.capacity() != cols * rows)
+			throw new IllegalArgumentException("Expected " + cols * rows + " cells, got " + cells.capacity());
+		this.cols = cols;
+		this.rows = rows;
+		this.mineCount = mineCount;
+		this.cells = cells != null ? cells : ByteBuffer.allocate(cols * rows);
+		this.seed = seed;
+		minesLeft = mineCount;
+	}
+
+	public Recorder getRecorder() {
+		return recorder;
+	}
+
+	public void setRecorder(Recorder recorder) {
+		this.recorder = recorder;
+	}
+
+	public Listener getListener() {
+		return listener;
+	}
+
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	public Snapshot snapshot() {
+		byte[] copy = new byte[cells.capacity()];
+		cells.get(0, copy);
+		return new Snapshot(copy, minesLeft, cellsOpened, getState(), seed);
+	}
+
+	public void restore(Snapshot snapshot) {
+		if (snapshot.cells.length != cells.capacity())
+			throw new IllegalArgumentException("Snapshot is of a different size of board");
+		cells.put(0, snapshot.cells);
+		seed = snapshot.seed;
+		restoreState(snapshot.minesLeft, snapshot.cellsOpened, snapshot.state);
+	}
+
+	//the n-th seed derived from rootSeed, spread out with the splitmix64 finalizer so nearby roots and neighbouring n give unrelated
+	//boards. for anything that plays a numbered series of games from one seed (no-guess attempts, simulations, load tests)
+	public static long deriveSeed(long rootSeed, long n) {
+		long h = rootSeed + (n + 1) * 0x9E3779B97F4A7C15L;
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		return h ^ (h >>> 31);
+	}
+
+	//the most mines a board of this size can hold while still leaving a 3x3 safe zone for the first click
+	public static int maxMines(int cols, int rows) {
+		return cols * rows - Math.min(3, cols) * Math.min(3, rows);
+	}
+
+	public int getCols() {
+		return cols;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getMineCount() {
+		return mineCount;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int size() {
+		return cells.capacity();
+	}
+
+	public int getMinesLeft() {
+		return minesLeft;
+	}
+
+	public int getCellsOpened() {
+		return cellsOpened;
+	}
+
+	public boolean isDead() {
+		return dead;
+	}
+
+	public boolean isSolved() {
+		return solved;
+	}
+
+	public boolean isGenerated() {
+		return generated;
+	}
+
+	public boolean isOver() {
+		return dead || solved;
+	}
+
+	//the game state flags packed into an int (see the STATE_* bits), for saving
+	int getState() {
+		return (generated ? STATE_GENERATED : 0) | (pregenerated ? STATE_PREGENERATED : 0) | (dead ? STATE_DEAD : 0) | (solved ? STATE_SOLVED : 0);
+	}
+
+	//puts back everything about a saved game other than the cells themselves
+	void restoreState(int minesLeft, int cellsOpened, int state) {
+		this.minesLeft = minesLeft;
+		this.cellsOpened = cellsOpened;
+		generated = (state & STATE_GENERATED) != 0;
+		pregenerated = (state & STATE_PREGENERATED) != 0;
+		dead = (state & STATE_DEAD) != 0;
+		solved = (state & STATE_SOLVED) != 0;
+	}
+
+	//works the counts and the dead and solved flags out from the cells themselves, for cells that may have been written after the state was saved.
+	//a board where every cell is revealed went through revealAll, which doesn't count as playing, so the state it has stands
+	void countFromCells() {
+		int flags = 0, opened = 0, shown = 0;
+		boolean mineShown = false;
+		for (int i = 0, size = cells.capacity(); i < size; i++) {
+			int cell = cells.get(i);
+			if ((cell & FLAG) != 0)
+				flags++;
+			if ((cell & REVEALED) != 0) {
+				shown++;
+				if ((cell & MINE) != 0)
+					mineShown = true;
+				else
+					opened++;
+			}
+		}
+		if (shown == cells.capacity())
+			return;
+		boolean anyShown = shown > 0;
+		minesLeft = mineCount - flags;
+		cellsOpened = opened;
+		if (anyShown) { //the first click was made, even if the state says otherwise
+			generated = true;
+			pregenerated = false;
+		}
+		solved = false;
+		dead = mineShown;
+		checkWin();
+	}
+
+	//copies every cell into to, which has to hold exactly size() bytes from its position on
+	void copyCells(ByteBuffer to) {
+		to.put(cells.duplicate().clear());
+	}
+
+	//copies one row of cells into to, for code that scans the whole board a row at a time
+	void copyRow(int row, byte[] to) {
+		cells.get(row * cols, to, 0, cols);
+	}
+
+	public int getCell(int index) { //raw packed cell, for code that wants to look at the bits directly
+		return cells.get(index);
+	}
+
+	public boolean isMine(int index) {
+		return (cells.get(index) & MINE) != 0;
+	}
+
+	public boolean isRevealed(int index) {
+		return (cells.get(index) & REVEALED) != 0;
+	}
+
+	public boolean isFlagged(int index) {
+		return (cells.get(index) & FLAG) != 0;
+	}
+
+	public int getCount(int index) {
+		return cells.get(index) & COUNT_MASK;
+	}
+
+	//what the player gets to see at this cell, using the UNOPENED/SHOWN_* codes above
+	public int view(int index) {
+		int cell = cells.get(index);
+		if ((cell & FLAG) != 0) {
+			return dead && (cell & MINE) == 0 ? SHOWN_WRONG_FLAG : SHOWN_FLAG;
+		}
+		if ((cell & MINE) != 0) {
+			if ((cell & REVEALED) != 0 || dead)
+				return SHOWN_MINE; //once the player is dead, every mine is shown
+			return solved ? SHOWN_FLAG : UNOPENED; //and once the board is solved, every mine is auto flagged
+		}
+		return (cell & REVEALED) != 0 ? cell & COUNT_MASK : UNOPENED;
+	}
+
+	//fills neighbours with the indices of every cell adjacent to index and returns how many there are (3 in a corner, 5 on an edge, 8 otherwise). this replaces the checkers/wrapCheck pair
+	public int neighbours(int index, int[] neighbours) {
+		int x = index % cols, y = index / cols, n = 0;
+		for (int dy = -1; dy <= 1; dy++) {
+			int ny = y + dy;
+			if (ny < 0 || ny >= rows)
+				continue;
+			for (int dx = -1; dx <= 1; dx++) {
+				int nx = x + dx;
+				if ((dx == 0 && dy == 0) || nx < 0 || nx >= cols)
+					continue;
+				neighbours[n++] = ny * cols + nx;
+			}
+		}
+		return n;
+	}
+
+	//places the mines such that exclude and every cell around it are safe, so the first click always lands on an empty cell. uses the board's current seed
+	public void generate(int exclude) {
+		generate(exclude, seed);
+	}
+
+	//same as generate(int), but with an explicit seed. the same (cols, rows, mines, seed, exclude) always produces the same board.
+	//mines are picked with Floyd's sampling algorithm over the cells outside the safe zone, so this is linear in the amount of mines with no rerolls or re-sorting, even at very high densities
+	public void generate(int exclude, long seed) {
+		long start = listener != null ? System.nanoTime() : 0;
+		if (generated || pregenerated)
+			zero();
+		this.seed = seed;
+
+		//the safe zone is exclude and the cells around it, in ascending order so allowed cells can be numbered around them
+		int[] safe = safeZone;
+		int safeCount = neighbours(exclude, safe);
+		safe[safeCount++] = exclude;
+		Arrays.sort(safe, 0, safeCount);
+		int allowed = cells.capacity() - safeCount;
+
+		SplittableRandom rng = new SplittableRandom(seed);
+		if (mineCount <= allowed / 2) {
+			for (int j = allowed - mineCount; j < allowed; j++) { //Floyd: pick a random allowed cell in 0..j, and if it is already a mine, take j itself (which can't be one yet)
+				int pick = skipSafe(rng.nextInt(j + 1), safe, safeCount);
+				if ((cells.get(pick) & MINE) != 0)
+					pick = skipSafe(j, safe, safeCount);
+				cells.put(pick, (byte) (cells.get(pick) | MINE));
+			}
+		} else { //on dense boards it is cheaper to mine every allowed cell and then pick the ones that stay empty
+			for (int i = 0, s = 0; i < cells.capacity(); i++) {
+				if (s < safeCount && safe[s] == i)
+					s++;
+				else
+					cells.put(i, (byte) MINE);
+			}
+			for (int j = mineCount; j < allowed; j++) {
+				int pick = skipSafe(rng.nextInt(j + 1), safe, safeCount);
+				if ((cells.get(pick) & MINE) == 0)
+					pick = skipSafe(j, safe, safeCount);
+				cells.put(pick, (byte) (cells.get(pick) & ~MINE));
+			}
+		}
+
+		CountKernel.count(cells, cols, rows); //then every cell gets its number, all at once
+		pregenerated = false;
+		generated = true;
+		if (listener != null)
+			listener.generated(cells.capacity(), mineCount, System.nanoTime() - start);
+	}
+
+	//works out the number of a single cell from scratch
+	private void recount(int index, int[] adjacent) {
+		int n = neighbours(index, adjacent), count = 0;
+		for (int j = 0; j < n; j++) {
+			if ((cells.get(adjacent[j]) & MINE) != 0)
+				count++;
+		}
+		cells.put(index, (byte) ((cells.get(index) & ~COUNT_MASK) | count));
+	}
+
+	//whether pregenerate() can be used for a board of this size. the safe zone has to fit on the board without being clipped by an edge
+	public static boolean canPregenerate(int cols, int rows, int mineCount) {
+		return cols >= 3 && rows >= 3 && mineCount <= cols * rows - 9;
+	}
+
+	//places the mines ahead of time, with the safe zone in the middle of the board. on the first click the whole board is shifted
+	//(wrapping around at the edges) so the safe zone lands under the click, which only means moving the cells and recounting a few rows and columns.
+	//this lets boards be generated in the background before anyone knows where the first click will be. uses the board's current seed.
+	//a first click on the outer ring of cells is generated from scratch instead (see moveSafeZone)
+	public void pregenerate() {
+		pregenerate(seed);
+	}
+
+	public void pregenerate(long seed) {
+		if (!canPregenerate(cols, rows, mineCount))
+			throw new IllegalArgumentException("Board is too small or too full to pregenerate: " + cols + " x " + rows + ", " + mineCount + " mines");
+		generate(anchor(), seed);
+		generated = false;
+		pregenerated = true;
+	}
+
+	public boolean isPregenerated() {
+		return pregenerated;
+	}
+
+	private int anchor() { //where pregenerate puts the safe zone
+		return rows / 2 * cols + cols / 2;
+	}
+
+	//whether moveSafeZone can put the safe zone under click. on the outer ring the shifted safe zone would wrap around and keep
+	//the cells on the far edge free of mines too, which gives them away, so those clicks get a normal generate() instead
+	private boolean canShiftTo(int click) {
+		int x = click % cols, y = click / cols;
+		return x > 0 && y > 0 && x < cols - 1 && y < rows - 1;
+	}
+
+	//shifts a pregenerated board so its safe zone is centred on click, which has to be off the outer ring (see canShiftTo).
+	//the mines were spread evenly outside the old safe zone, so after the shift they are spread evenly outside the new one
+	private void moveSafeZone(int click) {
+		int anchor = anchor();
+		int dx = Math.floorMod(click % cols - anchor % cols, cols), dy = Math.floorMod(click / cols - anchor / cols, rows);
+		rotate(0, cells.capacity(), dy * cols); //moves every row down by dy
+		if (dx != 0) {
+			for (int row = 0; row < cells.capacity(); row += cols) {
+				rotate(row, row + cols, dx); //and every column right by dx
+			}
+		}
+
+		//only cells whose neighbours changed need recounting: the new edges, and the rows and columns where the old edges now meet
+		int[] lines = {0, rows - 1, dy, Math.floorMod(dy - 1, rows)};
+		for (int row : lines) {
+			for (int i = row * cols; i < (row + 1) * cols; i++) {
+				recount(i, adjacent);
+			}
+		}
+		lines = new int[] {0, cols - 1, dx, Math.floorMod(dx - 1, cols)};
+		for (int col : lines) {
+			for (int i = col; i < cells.capacity(); i += cols) {
+				recount(i, adjacent);
+			}
+		}
+	}
+
+	//rotates cells[from..to) right by by places, using three reversals
+	private void rotate(int from, int to, int by) {
+		if (by == 0)
+			return;
+		reverse(from, to);
+		reverse(from, from + by);
+		reverse(from + by, to);
+	}
+
+	private void reverse(int from, int to) {
+		for (int i = from, j = to - 1; i < j; i++, j--) {
+			byte swap = cells.get(i);
+			cells.put(i, cells.get(j));
+			cells.put(j, swap);
+		}
+	}
+
+	//turns the n-th allowed cell into a board index by stepping over the (sorted) safe zone cells at or before it
+	private static int skipSafe(int n, int[] safe, int safeCount) {
+		for (int s = 0; s < safeCount && safe[s] <= n; s++) {
+			n++;
+		}
+		return n;
+	}
+
+	//left click on an unopened cell. generates the board first if this is the first click. returns the amount of cells that were revealed
+	public int open(int index) {
+		return open(index, null);
+	}
+
+	//same as open(int), but every newly revealed cell is also added to revealed (if it isn't null) so callers can react to just the cells that changed
+	public int open(int index, IntList revealed) {
+		int opened = openCell(index, revealed);
+		if (opened > 0 && recorder != null)
+			recorder.record(Journal.OPEN, index);
+		return opened;
+	}
+
+	private int openCell(int index, IntList revealed) {
+		if (isOver() || (cells.get(index) & (REVEALED | FLAG)) != 0)
+			return 0;
+		if (!generated) {
+			if (pregenerated && canShiftTo(index))
+				moveSafeZone(index);
+			else
+				generate(index);
+			pregenerated = false;
+			generated = true;
+		}
+		int before = cellsOpened;
+		if ((cells.get(index) & MINE) != 0) {
+			cells.put(index, (byte) (cells.get(index) | REVEALED));
+			if (revealed != null)
+				revealed.add(index);
+			dead = true;
+			return 1;
+		}
+		if ((cells.get(index) & COUNT_MASK) == 0) {
+			long start = listener != null ? System.nanoTime() : 0;
+			fill(index, revealed); //if what we open is an empty cell, then we open all cells around it too
+			if (listener != null)
+				listener.cascaded(cellsOpened - before, System.nanoTime() - start);
+		} else
+			reveal(index, revealed);
+		checkWin();
+		return cellsOpened - before;
+	}
+
+	private void reveal(int index, IntList revealed) {
+		cells.put(index, (byte) (cells.get(index) | REVEALED));
+		cellsOpened++;
+		if (revealed != null)
+			revealed.add(index);
+	}
+
+	//opens the whole empty region around seed (which has to be an unopened empty cell) along with the numbers bordering it.
+	//this is a scanline fill: each cell popped off the stack is grown into the full horizontal run of empty cells it belongs to, and only the first cell of each run found in the rows above and below is pushed.
+	//no recursion and no out of bounds exceptions, so the stack can't overflow no matter how big the region is
+	private void fill(int seed, IntList revealed) {
+		IntList stack = work;
+		stack.clear();
+		stack.add(seed);
+		while (!stack.isEmpty()) {
+			int c = stack.pop();
+			if ((cells.get(c) & BLANK_MASK) != 0)
+				continue; //already opened through another run
+			int rowStart = c - c % cols, rowEnd = rowStart + cols - 1;
+			int l = c, r = c;
+			while (l > rowStart && (cells.get(l - 1) & BLANK_MASK) == 0)
+				l--;
+			while (r < rowEnd && (cells.get(r + 1) & BLANK_MASK) == 0)
+				r++;
+			for (int i = l; i <= r; i++) {
+				reveal(i, revealed);
+			}
+
+			//the cells just past either end of the run can only be numbers, flags or already opened cells
+			int lo = l > rowStart ? l - 1 : l, hi = r < rowEnd ? r + 1 : r;
+			if (lo < l && (cells.get(lo) & (REVEALED | FLAG)) == 0)
+				reveal(lo, revealed);
+			if (hi > r && (cells.get(hi) & (REVEALED | FLAG)) == 0)
+				reveal(hi, revealed);
+			if (rowStart > 0)
+				scan(lo - cols, hi - cols, stack, revealed);
+			if (rowEnd < cells.capacity() - 1)
+				scan(lo + cols, hi + cols, stack, revealed);
+		}
+	}
+
+	//opens the numbers in cells from..to (inclusive, all on one row) and pushes the start of every run of unopened empty cells
+	private void scan(int from, int to, IntList stack, IntList revealed) {
+		boolean inRun = false;
+		for (int i = from; i <= to; i++) {
+			int cell = cells.get(i);
+			if ((cell & (REVEALED | FLAG)) != 0) {
+				inRun = false;
+			} else if ((cell & COUNT_MASK) == 0) { //can't be a mine, since it is next to an empty cell
+				if (!inRun)
+					stack.add(i);
+				inRun = true;
+			} else {
+				reveal(i, revealed);
+				inRun = false;
+			}
+		}
+	}
+
+	//right click. flags an unopened cell or unflags a flagged one. returns whether anything changed
+	public boolean flag(int index) {
+		if (isOver() || !generated || (cells.get(index) & REVEALED) != 0)
+			return false;
+		boolean flagged = (cells.get(index) & FLAG) != 0;
+		if (flagged) {
+			cells.put(index, (byte) (cells.get(index) & ~FLAG));
+			minesLeft++;
+		} else {
+			cells.put(index, (byte) (cells.get(index) | FLAG));
+			minesLeft--;
+		}
+		if (recorder != null)
+			recorder.record(flagged ? Journal.UNFLAG : Journal.FLAG, index);
+		return true;
+	}
+
+	//left click on an opened number. if it has the right amount of flags around it, every other cell around it is opened. returns the amount of cells that were revealed
+	public int chord(int index) {
+		return chord(index, null);
+	}
+
+	public int chord(int index, IntList revealed) {
+		int cell = cells.get(index);
+		if (isOver() || (cell & REVEALED) == 0 || (cell & MINE) != 0 || (cell & COUNT_MASK) == 0)
+			return 0;
+		int[] adjacent = this.adjacent; //openCell below never walks neighbours on a generated board, so this can't be overwritten
+		int n = neighbours(index, adjacent), flags = 0;
+		for (int i = 0; i < n; i++) {
+			if ((cells.get(adjacent[i]) & FLAG) != 0)
+				flags++;
+		}
+		if (flags != (cell & COUNT_MASK))
+			return 0;
+		int opened = 0;
+		for (int i = 0; i < n && !dead; i++) {
+			opened += openCell(adjacent[i], revealed);
+		}
+		if (opened > 0 && recorder != null)
+			recorder.record(Journal.CHORD, index);
+		return opened;
+	}
+
+	private void checkWin() {
+		if (!dead && cellsOpened >= cells.capacity() - mineCount) { //the win condition is if every non mine cell has been uncovered, so a no flags run is possible
+			solved = true;
+			minesLeft = 0;
+		}
+	}
+
+	private void zero() { //clears every cell, 8 at a time
+		int i = 0, size = cells.capacity();
+		for (; i + 8 <= size; i += 8) {
+			cells.putLong(i, 0);
+		}
+		for (; i < size; i++) {
+			cells.put(i, (byte) 0);
+		}
+	}
+
+	public void revealAll() { //debug method - reveals all cells without counting them as opened
+		for (int i = 0; i < cells.capacity(); i++) {
+			cells.put(i, (byte) (cells.get(i) | REVEALED));
+		}
+		if (recorder != null)
+			recorder.record(Journal.REVEAL_ALL, -1);
+	}
+
+	public void reset() { //resets all cells to unopened state without generating a new puzzle
+		for (int i = 0; i < cells.capacity(); i++) {
+			cells.put(i, (byte) (cells.get(i) & ~(REVEALED | FLAG)));
+		}
+		minesLeft = mineCount;
+		cellsOpened = 0;
+		dead = false;
+		solved = false;
+		if (recorder != null)
+			recorder.record(Journal.RESET, -1);
+	}
+
+	public void clear() { //throws the puzzle away so the next open() generates a new one
+		clear(ThreadLocalRandom.current().nextLong());
+	}
+
+	public void clear(long seed) { //same as clear(), but the next puzzle will be generated from seed
+		zero();
+		this.seed = seed;
+		minesLeft = mineCount;
+		cellsOpened = 0;
+		dead = false;
+		solved = false;
+		generated = false;
+		pregenerated = false;
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ * Description: Board difficulty analyzer
+ * Works out the usual difficulty measures of a board once its mines are placed: the 3BV (the least amount of clicks that clear
+ * it), how many openings (areas of empty cells) there are, how many numbers don't border any opening and so each need a click of
+ * their own, and how the mines clump together.
+ *
+ * Everything comes out of a single pass over the board, one row at a time. Openings and mine clusters are found with a
+ * union-find over labels: every cell only looks at its left neighbour and the three above it, and takes on (and joins up) their
+ * labels. Only three rows of cells and two rows of labels are kept, so a 100M cell board needs no more than a few hundred KB plus
+ * one entry per label, and nothing recurses.
+ */
+
+import java.util.Arrays;
+
+public class BoardAnalyzer {
+	private static final int ZERO_MASK = Board.MINE | Board.COUNT_MASK; //a cell with none of these bits set is empty
+
+	public static class Result {
+		public final int threeBV; //least amount of clicks needed to clear the board: one per opening, plus one per isolated number
+		public final int openings; //areas of empty cells that open with one click
+		public final int isolatedNumbers; //numbers with no empty cell next to them
+		public final int mineClusters, largestCluster; //groups of touching mines (diagonals count), and how many mines the biggest one has
+
+		Result(int openings, int isolatedNumbers, int mineClusters, int largestCluster) {
+			this.threeBV = openings + isolatedNumbers;
+			this.openings = openings;
+			this.isolatedNumbers = isolatedNumbers;
+			this.mineClusters = mineClusters;
+			this.largestCluster = largestCluster;
+		}
+
+		@Override
+		public String toString() {
+			return "3BV " + threeBV + " (" + openings + " openings, " + isolatedNumbers + " isolated numbers), " + mineClusters + " mine clusters (largest " + largestCluster + ")";
+		}
+	}
+
+	//labels that get joined together as it turns out they belong to the same area, along with the size of every area
+	private static class UnionFind {
+		private int[] parent = new int[64], size = new int[64];
+		private int labels, joins, largest; //labels handed out, how many of them were merged into another, and the biggest area so far
+
+		int add() {
+			if (labels == parent.length) {
+				parent = Arrays.copyOf(parent, labels * 2);
+				size = Arrays.copyOf(size, labels * 2);
+			}
+			parent[labels] = labels;
+			size[labels] = 0;
+			return labels++;
+		}
+
+		int find(int label) {
+			while (parent[label] != label) {
+				parent[label] = parent[parent[label]]; //path halving keeps the trees flat without recursing
+				label = parent[label];
+			}
+			return label;
+		}
+
+		//joins the areas of a and b (either can be -1 for none) and returns the label of the result
+		int union(int a, int b) {
+			if (a < 0)
+				return b;
+			if (b < 0)
+				return a;
+			a = find(a);
+			b = find(b);
+			if (a == b)
+				return a;
+			if (size[a] < size[b]) { //the smaller area goes under the bigger one
+				int swap = a;
+				a = b;
+				b = swap;
+			}
+			parent[b] = a;
+			size[a] += size[b];
+			joins++;
+			return a;
+		}
+
+		void grow(int label) {
+			int root = find(label);
+			largest = Math.max(largest, ++size[root]);
+		}
+
+		int areas() {
+			return labels - joins;
+		}
+	}
+
+	public static Result analyze(Board board) {
+		if (!board.isGenerated() && !board.isPregenerated())
+			throw new IllegalStateException("Board has no mines yet");
+		int cols = board.getCols(), rows = board.getRows(), isolated = 0;
+		byte[] above = new byte[cols], row = new byte[cols], below = new byte[cols];
+		int[] zeroAbove = new int[cols], zeroRow = new int[cols], mineAbove = new int[cols], mineRow = new int[cols]; //label of every cell, or -1
+		UnionFind openings = new UnionFind(), clusters = new UnionFind();
+		board.copyRow(0, row);
+		for (int y = 0; y < rows; y++) {
+			boolean first = y == 0, last = y == rows - 1;
+			if (!last)
+				board.copyRow(y + 1, below);
+			for (int x = 0; x < cols; x++) {
+				int cell = row[x];
+				zeroRow[x] = -1;
+				mineRow[x] = -1;
+				if ((cell & Board.MINE) != 0)
+					mineRow[x] = join(clusters, x, mineRow, first ? null : mineAbove);
+				else if ((cell & Board.COUNT_MASK) == 0)
+					zeroRow[x] = join(openings, x, zeroRow, first ? null : zeroAbove);
+				else if (!nextToZero(x, first ? null : above, row, last ? null : below))
+					isolated++;
+			}
+			byte[] cells = above;
+			above = row;
+			row = below;
+			below = cells;
+			int[] labels = zeroAbove;
+			zeroAbove = zeroRow;
+			zeroRow = labels;
+			labels = mineAbove;
+			mineAbove = mineRow;
+			mineRow = labels;
+		}
+		return new Result(openings.areas(), isolated, clusters.areas(), clusters.largest);
+	}
+
+	//gives cell x of the current row the label of the area it joins through its left and upper neighbours, merging them if it touches more than one.
+	//cells next to each other were already joined when the second of them was labelled, so at most one union is ever needed
+	private static int join(UnionFind areas, int x, int[] row, int[] above) {
+		int left = x > 0 ? row[x - 1] : -1, label;
+		if (above == null)
+			label = left;
+		else if (above[x] >= 0)
+			label = above[x]; //touches everything else this cell could touch
+		else if (left >= 0)
+			label = x + 1 < row.length ? areas.union(left, above[x + 1]) : left; //left already went through the cell above it
+		else
+			label = areas.union(x > 0 ? above[x - 1] : -1, x + 1 < row.length ? above[x + 1] : -1);
+		if (label < 0)
+			label = areas.add();
+		areas.grow(label);
+		return label;
+	}
+
+	//whether any cell around x (in the rows that exist) is empty
+	private static boolean nextToZero(int x, byte[] above, byte[] row, byte[] below) {
+		int from = Math.max(0, x - 1), to = Math.min(row.length - 1, x + 1);
+		for (int i = from; i <= to; i++) {
+			if ((above != null && (above[i] & ZERO_MASK) == 0) || (row[i] & ZERO_MASK) == 0 || (below != null && (below[i] & ZERO_MASK) == 0))
+				return true;
+		}
+		return false;
+	}
+}
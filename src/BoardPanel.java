@@ -0,0 +1,231 @@
+/**
+ * Description: Custom painted game board
+ * Replaces the old grid of one JButton per cell. The whole board is a single component that paints the cells straight from
+ * the Board model, and only the cells inside the current clip are painted, so after a click only the cells that changed
+ * need to be repainted. The cells themselves are drawn by a CellPainter.
+ *
+ * The panel is meant to sit inside a JScrollPane: it is exactly as big as the board at the current zoom level, and since
+ * Swing only ever asks it to paint the part that is on screen, painting costs scale with the window rather than the board.
+ * Ctrl + mouse wheel zooms around the mouse.
+ *
+ * It can also lay a heatmap of mine probabilities (from a ProbabilityEngine) over the unopened cells, from green for safe to red
+ * for a certain mine, with the percentage written on cells big enough to hold it.
+ */
+
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+
+@SuppressWarnings("serial")
+public class BoardPanel extends JComponent implements Scrollable {
+	public static final int[] ZOOM_LEVELS = {2, 4, 6, 8, 12, 16, 20, 24, 32, 40, 50}; //cell sizes in pixels that the board can be zoomed to
+	private static final int PERCENT_SIZE = 24; //smallest cell size that has room to write the probability on
+	private static final Color[] HEAT = new Color[101]; //tint for each whole percent, green through yellow to red, see-through so the cell still shows
+	static {
+		for (int i = 0; i <= 100; i++) {
+			HEAT[i] = new Color(Math.min(255, i * 510 / 100), Math.min(255, (100 - i) * 510 / 100), 0, 140);
+		}
+	}
+
+	private Board board; //the board being displayed
+	private final CellPainter painter; //draws the cells, and caches the font and icons for the current cell size
+	private int zoom = ZOOM_LEVELS.length - 1; //index into ZOOM_LEVELS
+	private int highlight = -1; //cell that gets a box drawn around it (e.g. a hint), or -1 for none
+	private ProbabilityEngine.Result probabilities; //mine chances to tint the unopened cells with, or null for none
+	private final Font percentFont = new Font(Font.SANS_SERIF, Font.PLAIN, 10);
+
+	public BoardPanel(Board board) {
+		this.board = board;
+		painter = new CellPainter();
+		setOpaque(true);
+		setFocusable(false);
+
+		//ctrl + wheel zooms, anything else is handed up to the scroll pane so it still scrolls
+		addMouseWheelListener(new MouseWheelListener() {
+			@Override
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				if (e.isControlDown())
+					zoom(-e.getWheelRotation(), e.getPoint());
+				else if (getParent() != null)
+					getParent().dispatchEvent(SwingUtilities.convertMouseEvent(BoardPanel.this, e, getParent()));
+			}
+		});
+	}
+
+	public Board getBoard() {
+		return board;
+	}
+
+	public void setBoard(Board board) {
+		this.board = board;
+		highlight = -1;
+		probabilities = null;
+		revalidate();
+		repaint();
+	}
+
+	public int getCellSize() {
+		return ZOOM_LEVELS[zoom];
+	}
+
+	//picks the largest zoom level at which a cols x rows board fits in width x height pixels (or the smallest level if none do)
+	public void fitZoom(int width, int height) {
+		zoom = 0;
+		while (zoom < ZOOM_LEVELS.length - 1 && (long) board.getCols() * ZOOM_LEVELS[zoom + 1] <= width && (long) board.getRows() * ZOOM_LEVELS[zoom + 1] <= height) {
+			zoom++;
+		}
+		revalidate();
+		repaint();
+	}
+
+	//zooms in (steps > 0) or out (steps < 0), keeping whatever is under anchor (in panel coordinates) in the same place on screen
+	public void zoom(int steps, Point anchor) {
+		int next = Math.max(0, Math.min(ZOOM_LEVELS.length - 1, zoom + steps));
+		if (next == zoom)
+			return;
+		int oldSize = getCellSize();
+		zoom = next;
+		int newSize = getCellSize();
+		Container parent = getParent();
+		if (parent instanceof JViewport) {
+			JViewport viewport = (JViewport) parent;
+			Point view = viewport.getViewPosition();
+			int x = (int) ((long) anchor.x * newSize / oldSize) - (anchor.x - view.x);
+			int y = (int) ((long) anchor.y * newSize / oldSize) - (anchor.y - view.y);
+			setSize(getPreferredSize()); //the viewport clamps the position to our size, so resize first
+			viewport.setViewPosition(new Point(Math.max(0, x), Math.max(0, y)));
+		}
+		revalidate();
+		repaint();
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		int size = getCellSize();
+		return new Dimension((int) Math.min(Integer.MAX_VALUE, (long) board.getCols() * size), (int) Math.min(Integer.MAX_VALUE, (long) board.getRows() * size));
+	}
+
+	@Override
+	public Dimension getPreferredScrollableViewportSize() {
+		return getPreferredSize();
+	}
+
+	@Override
+	public int getScrollableUnitIncrement(Rectangle visible, int orientation, int direction) {
+		return getCellSize();
+	}
+
+	@Override
+	public int getScrollableBlockIncrement(Rectangle visible, int orientation, int direction) {
+		return Math.max(getCellSize(), (orientation == SwingConstants.HORIZONTAL ? visible.width : visible.height) - getCellSize());
+	}
+
+	@Override
+	public boolean getScrollableTracksViewportWidth() {
+		return false;
+	}
+
+	@Override
+	public boolean getScrollableTracksViewportHeight() {
+		return false;
+	}
+
+	//draws a box around cell and scrolls it into view. -1 removes the box
+	public void setHighlight(int cell) {
+		if (highlight >= 0)
+			repaintCell(highlight);
+		highlight = cell;
+		if (cell >= 0) {
+			int size = getCellSize();
+			scrollRectToVisible(new Rectangle(cell % board.getCols() * size - size, cell / board.getCols() * size - size, size * 3, size * 3));
+			repaintCell(cell);
+		}
+	}
+
+	//shows the given probabilities over the unopened cells. null takes the heatmap away
+	public void setProbabilities(ProbabilityEngine.Result probabilities) {
+		this.probabilities = probabilities;
+		repaint();
+	}
+
+	//index of the cell at pixel (x, y), or -1 if there isn't one there
+	public int cellAt(int x, int y) {
+		int size = getCellSize();
+		if (x < 0 || y < 0 || x / size >= board.getCols() || y / size >= board.getRows())
+			return -1;
+		return y / size * board.getCols() + x / size;
+	}
+
+	public void repaintCell(int index) {
+		int size = getCellSize();
+		repaint(index % board.getCols() * size, index / board.getCols() * size, size, size);
+	}
+
+	//repaints only the area covering the given cells
+	public void repaintCells(IntList changed) {
+		if (changed.isEmpty())
+			return;
+		int cols = board.getCols(), minCol = Integer.MAX_VALUE, minRow = Integer.MAX_VALUE, maxCol = -1, maxRow = -1;
+		for (int i = 0; i < changed.size(); i++) {
+			int index = changed.get(i), col = index % cols, row = index / cols;
+			minCol = Math.min(minCol, col);
+			maxCol = Math.max(maxCol, col);
+			minRow = Math.min(minRow, row);
+			maxRow = Math.max(maxRow, row);
+		}
+		int size = getCellSize();
+		repaint(minCol * size, minRow * size, (maxCol - minCol + 1) * size, (maxRow - minRow + 1) * size);
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		int size = getCellSize(), cols = board.getCols(), rows = board.getRows();
+		Rectangle clip = g.getClipBounds();
+		if (clip == null)
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		g.setColor(Color.black);
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+		//only the cells inside the clip get painted
+		int firstCol = Math.max(0, clip.x / size), lastCol = Math.min(cols - 1, (clip.x + clip.width - 1) / size);
+		int firstRow = Math.max(0, clip.y / size), lastRow = Math.min(rows - 1, (clip.y + clip.height - 1) / size);
+		painter.prepare(g, size);
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int col = firstCol; col <= lastCol; col++) {
+				painter.paint(g, board.view(row * cols + col), col * size, row * size, size);
+			}
+		}
+		if (probabilities != null)
+			paintProbabilities(g, firstCol, lastCol, firstRow, lastRow);
+		if (highlight >= 0) {
+			g.setColor(Color.yellow);
+			g.drawRect(highlight % cols * size, highlight / cols * size, size - 2, size - 2);
+			g.drawRect(highlight % cols * size + 1, highlight / cols * size + 1, size - 4, size - 4);
+		}
+	}
+
+	private void paintProbabilities(Graphics g, int firstCol, int lastCol, int firstRow, int lastRow) {
+		int size = getCellSize(), cols = board.getCols(), inner = size > 4 ? size - 1 : size;
+		boolean text = size >= PERCENT_SIZE;
+		g.setFont(percentFont);
+		FontMetrics metrics = g.getFontMetrics();
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int col = firstCol; col <= lastCol; col++) {
+				int cell = row * cols + col;
+				if (board.view(cell) != Board.UNOPENED)
+					continue; //flags are left alone, the player has already made up their mind about those
+				float p = probabilities.probability(cell);
+				if (Float.isNaN(p))
+					continue;
+				int percent = Math.round(p * 100);
+				g.setColor(HEAT[percent]);
+				g.fillRect(col * size, row * size, inner, inner);
+				if (text) {
+					String label = percent + "%";
+					g.setColor(Color.black);
+					g.drawString(label, col * size + (inner - metrics.stringWidth(label)) / 2, row * size + (inner - metrics.getHeight()) / 2 + metrics.getAscent());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * Description: Pool of ready made boards
+ * Keeps a few pregenerated boards of every recently played size, so starting a new game never has to wait for mines to be
+ * placed. A single background thread tops the pools back up whenever a board is taken. The first click is still always safe,
+ * since pregenerated boards get shifted so their safe zone lands under it, or generated over when it is on the outer ring of
+ * cells (see Board.pregenerate).
+ *
+ * Sizes too big to keep several copies of in memory aren't pooled at all - those just get a fresh board that is generated on
+ * the first click like always.
+ *
+ * A size can also be given a 3BV band (see BoardAnalyzer), and then boards outside it are thrown away and rolled again. The 3BV
+ * is measured before the board is shifted to the first click, which can change it by a little around the edges. Rolling only
+ * ever happens on the background thread, so when a banded pool has run dry the game gets a fresh board with no band instead.
+ */
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class BoardPool {
+	private static final long MAX_POOL_CELLS = 1 << 24; //cells a single size's pool may hold in total, so at most 16MB of boards per size
+	private static final int MAX_BOARDS = 4; //boards kept per size, for small sizes
+	private static final int MAX_SIZES = 8; //sizes kept pooled at once. the least recently played one is dropped past this
+	private static final int MAX_REROLLS = 64; //boards tried per pooled board before one outside the 3BV band is kept anyway
+
+	private final Map<List<Integer>, BlockingQueue<Board>> pools; //one queue per (cols, rows, mines), in least to most recently used order
+	private final BlockingQueue<BlockingQueue<Board>> refills = new LinkedBlockingQueue<>(); //pools that are waiting to be topped up
+	private final Map<BlockingQueue<Board>, List<Integer>> sizes = new ConcurrentHashMap<>(); //which size every pool is for, for the refill thread
+	private final Map<List<Integer>, int[]> bands = new ConcurrentHashMap<>(); //lowest and highest 3BV allowed for a size, if it has a band
+	private final Board.Listener listener; //set on every board handed out, or null
+
+	public BoardPool() {
+		this(null);
+	}
+
+	//a pool whose boards all report to listener, including the generating done ahead of time
+	public BoardPool(Board.Listener listener) {
+		this.listener = listener;
+		pools = new LinkedHashMap<List<Integer>, BlockingQueue<Board>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<Integer>, BlockingQueue<Board>> eldest) {
+				if (size() <= MAX_SIZES)
+					return false;
+				sizes.remove(eldest.getValue());
+				eldest.getValue().clear();
+				return true;
+			}
+		};
+		Thread worker = new Thread(this::refill, "Board pool");
+		worker.setDaemon(true);
+		worker.setPriority(Thread.MIN_PRIORITY); //never get in the way of the game itself
+		worker.start();
+	}
+
+	//how many boards of this size the pool keeps, or 0 if they shouldn't be pooled
+	private static int capacity(int cols, int rows, int mines) {
+		if (!Board.canPregenerate(cols, rows, mines))
+			return 0;
+		return (int) Math.min(MAX_BOARDS, MAX_POOL_CELLS / ((long) cols * rows));
+	}
+
+	//starts filling up the pool for a size ahead of time, e.g. for the preset difficulties
+	public synchronized void register(int cols, int rows, int mines) {
+		pool(cols, rows, mines);
+	}
+
+	//same as register(int, int, int), but only boards with a 3BV between minBV and maxBV (inclusive) are handed out
+	public synchronized void register(int cols, int rows, int mines, int minBV, int maxBV) {
+		bands.put(List.of(cols, rows, mines), new int[] {minBV, maxBV});
+		pool(cols, rows, mines);
+	}
+
+	private synchronized BlockingQueue<Board> pool(int cols, int rows, int mines) {
+		int capacity = capacity(cols, rows, mines);
+		if (capacity == 0)
+			return null;
+		List<Integer> key = List.of(cols, rows, mines);
+		BlockingQueue<Board> pool = pools.get(key);
+		if (pool == null) {
+			pool = new ArrayBlockingQueue<>(capacity);
+			pools.put(key, pool);
+			sizes.put(pool, key);
+			refills.add(pool);
+		}
+		return pool;
+	}
+
+	//a board ready to be played. comes from the pool if one is ready, otherwise it's a fresh board that gets generated on the first click
+	public Board take(int cols, int rows, int mines) {
+		BlockingQueue<Board> pool = pool(cols, rows, mines);
+		if (pool == null)
+			return board(cols, rows, mines);
+		Board board = pool.poll();
+		refills.add(pool);
+		return board != null ? board : board(cols, rows, mines); //even for a banded size, since rolling for the band could take a while on the caller's thread
+	}
+
+	private Board board(int cols, int rows, int mines) {
+		Board board = new Board(cols, rows, mines);
+		board.setListener(listener);
+		return board;
+	}
+
+	//a pregenerated board of size key, inside its 3BV band if it has one
+	private Board make(List<Integer> key) {
+		Board board = board(key.get(0), key.get(1), key.get(2));
+		board.pregenerate();
+		int[] band = bands.get(key);
+		if (band == null)
+			return board;
+		int tries = 1;
+		for (; tries < MAX_REROLLS; tries++) {
+			int bv = BoardAnalyzer.analyze(board).threeBV;
+			if (bv >= band[0] && bv <= band[1])
+				break;
+			board.pregenerate(ThreadLocalRandom.current().nextLong());
+		}
+		if (listener != null)
+			listener.rerolled("3BV band", tries - 1);
+		return board;
+	}
+
+	//runs on the background thread forever, topping up whichever pool was last taken from
+	private void refill() {
+		while (true) {
+			BlockingQueue<Board> pool;
+			try {
+				pool = refills.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			List<Integer> key;
+			while ((key = sizes.get(pool)) != null && pool.remainingCapacity() > 0) { //stops early if the size got dropped meanwhile
+				pool.offer(make(key));
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * Description: Draws single cells
+ * The look of a cell (raised unopened cells, coloured numbers, mine and flag icons) shared by every board view.
+ * The number font and the icons scaled to the current cell size are cached, and only rebuilt when the cell size changes. Icons
+ * are only scaled (and so only ever waited for, see Icons) once a cell actually needs one.
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import javax.swing.*;
+
+public class CellPainter {
+	private static final int DETAIL_SIZE = 12; //below this cell size there is no room for numbers or icons, so cells are drawn as plain coloured blocks
+	private static final Color[] COLOURS = {Color.lightGray, Color.gray, Color.blue, Color.green, Color.red, Color.blue, Color.red, Color.cyan, Color.black, Color.darkGray}; //Each number traditionally has a color associated with it, indexed by the shown value + 1
+
+	private static final String[] NUMBERS = {"0", "1", "2", "3", "4", "5", "6", "7", "8"}; //so painting doesn't build a new string for every cell
+
+	private final Image[] scaledIcons = new Image[3]; //mine, flag and crossed out flag scaled to the current cell size, or null until one is needed
+	private Font font; //font used for the numbers, sized to the current cell size
+	private int cachedSize = -1; //cell size that the font and scaled icons were built for
+
+	public CellPainter() {
+	}
+
+	//gets the font and icons ready for cells of this size. call this once before painting a batch of cells
+	public void prepare(Graphics g, int size) {
+		if (size != cachedSize) {
+			cachedSize = size;
+			font = new Font("Courier prime", Font.PLAIN, Math.max(8, Math.min(18, size * 2 / 3)));
+			Arrays.fill(scaledIcons, null);
+		}
+		g.setFont(font);
+	}
+
+	private Image scaledIcon(int which) {
+		if (scaledIcons[which] == null) {
+			ImageIcon icon = Icons.get(which);
+			int iconSize = Math.max(1, Math.min(cachedSize - 2, icon.getIconWidth())); //icons are never drawn larger than they are
+			BufferedImage scaled = new BufferedImage(iconSize, iconSize, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D scaler = scaled.createGraphics();
+			scaler.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			scaler.drawImage(icon.getImage(), 0, 0, iconSize, iconSize, null);
+			scaler.dispose();
+			scaledIcons[which] = scaled;
+		}
+		return scaledIcons[which];
+	}
+
+	//paints a cell showing the given Board.view() value with its top left corner at (x, y)
+	public void paint(Graphics g, int shown, int x, int y, int size) {
+		int inner = size > 4 ? size - 1 : size; //leaves a one pixel black grid line between cells, same as the old GridLayout gaps, unless the cells are too small for it
+		if (size < DETAIL_SIZE) {
+			g.setColor(blockColour(shown));
+			g.fillRect(x, y, inner, inner);
+			return;
+		}
+		if (shown < 0 || shown > Board.SHOWN_MINE) { //unopened cells and flags look like raised buttons
+			g.setColor(Color.lightGray);
+			g.fill3DRect(x, y, inner, inner, true);
+		} else {
+			g.setColor(Color.gray);
+			g.fillRect(x, y, inner, inner);
+		}
+		if (shown >= Board.SHOWN_MINE) {
+			Image icon = scaledIcon(shown - Board.SHOWN_MINE);
+			g.drawImage(icon, x + (inner - icon.getWidth(null)) / 2, y + (inner - icon.getHeight(null)) / 2, null);
+		} else if (shown > 0) {
+			String text = NUMBERS[shown];
+			FontMetrics metrics = g.getFontMetrics();
+			g.setColor(COLOURS[shown + 1]);
+			g.drawString(text, x + (inner - metrics.stringWidth(text)) / 2, y + (inner - metrics.getHeight()) / 2 + metrics.getAscent());
+		}
+	}
+
+	//colour of a cell when it is too small to draw properly. also used by the minimap
+	public static Color blockColour(int shown) {
+		switch (shown) {
+		case Board.UNOPENED:
+			return Color.lightGray;
+		case Board.SHOWN_MINE:
+			return Color.black;
+		case Board.SHOWN_FLAG:
+			return Color.red;
+		case Board.SHOWN_WRONG_FLAG:
+			return Color.magenta;
+		default:
+			return shown == 0 ? Color.gray : COLOURS[shown + 1];
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/**
+ * Description: On-disk store for evicted endless board chunks
+ * Only the player's side of a chunk (which cells are revealed or flagged) is saved, at 2 bits per cell, since the mines and
+ * numbers can always be regenerated from the world seed. Every chunk gets a fixed size record in one file, and a chunk that
+ * is evicted again later simply overwrites its old record.
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+public class ChunkStore implements Closeable {
+	private final Path file; //where the records are kept
+	private final FileChannel channel;
+	private final int recordSize; //bytes per chunk record
+	private final boolean deleteOnClose; //temporary stores are thrown away once the game is closed
+	private final Map<Long, Long> offsets = new HashMap<>(); //chunk key -> position of its record in the file
+
+	public ChunkStore(Path file, int cellsPerChunk, boolean deleteOnClose) throws IOException {
+		this.file = file;
+		this.deleteOnClose = deleteOnClose;
+		recordSize = (cellsPerChunk * 2 + 7) / 8;
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	public static ChunkStore temporary(int cellsPerChunk) throws IOException { //a store in a temp file that is deleted when it is closed
+		return new ChunkStore(Files.createTempFile("minesweeper-chunks", ".bin"), cellsPerChunk, true);
+	}
+
+	public int size() { //amount of chunks that have been written out
+		return offsets.size();
+	}
+
+	public boolean contains(long key) {
+		return offsets.containsKey(key);
+	}
+
+	//saves the revealed and flag bits of every cell in the chunk
+	public void write(long key, byte[] cells) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(recordSize);
+		for (int i = 0; i < cells.length; i += 4) {
+			int packed = 0;
+			for (int j = 0; j < 4 && i + j < cells.length; j++) {
+				packed |= state(cells[i + j]) << (j * 2);
+			}
+			record.put((byte) packed);
+		}
+		record.flip();
+		Long offset = offsets.get(key);
+		if (offset == null) {
+			offset = (long) offsets.size() * recordSize;
+			offsets.put(key, offset);
+		}
+		while (record.hasRemaining()) {
+			channel.write(record, offset + record.position());
+		}
+	}
+
+	//puts the saved revealed and flag bits back onto a freshly generated chunk. returns false if the chunk was never saved
+	public boolean read(long key, byte[] cells) throws IOException {
+		Long offset = offsets.get(key);
+		if (offset == null)
+			return false;
+		ByteBuffer record = ByteBuffer.allocate(recordSize);
+		while (record.hasRemaining()) {
+			if (channel.read(record, offset + record.position()) < 0)
+				throw new EOFException("Chunk record cut short in " + file);
+		}
+		for (int i = 0; i < cells.length; i++) {
+			int state = (record.get(i / 4) >> ((i % 4) * 2)) & 3;
+			cells[i] |= ((state & 1) != 0 ? Board.REVEALED : 0) | ((state & 2) != 0 ? Board.FLAG : 0);
+		}
+		return true;
+	}
+
+	private static int state(byte cell) {
+		return ((cell & Board.REVEALED) != 0 ? 1 : 0) | ((cell & Board.FLAG) != 0 ? 2 : 0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+		if (deleteOnClose)
+			Files.deleteIfExists(file);
+	}
+}
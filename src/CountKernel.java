@@ -0,0 +1,143 @@
+/**
+ * Description: Bulk neighbour counting
+ * Works out the number of every cell of a board in one pass, instead of going through each mine's neighbours. It's a 3 x 3
+ * box sum over the mine bits: every row of mine bits is copied into a buffer with an empty cell on either side (so the edges
+ * need no checks), three rows are added up, and then every cell adds up its three sums and takes away itself.
+ *
+ * The adding is done 8 cells at a time, with a long holding one cell per byte. No byte can go over 9, so they never carry into
+ * each other. Big boards are split into stripes of rows which are counted on a fork-join pool at the same time.
+ *
+ * Boards on the heap are worked on right in their array. Boards that live outside of it (mapped save files) are copied in
+ * and out a row at a time, which is just a memory copy.
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+public final class CountKernel {
+	private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder()); //reads and writes 8 bytes of a byte[] at any offset
+	private static final long ONES = 0x0101010101010101L; //the lowest bit of every byte
+	private static final long COUNTS = ONES * Board.COUNT_MASK; //the count bits of every byte
+	private static final int MINE_SHIFT = Integer.numberOfTrailingZeros(Board.MINE); //how far the mine bit has to move down to be worth 1
+	private static final int PARALLEL_CELLS = 1 << 22; //boards smaller than this are counted on the calling thread
+	private static final int STRIPE_CELLS = 1 << 20; //about how many cells each task of a parallel count gets
+
+	private CountKernel() {
+	}
+
+	//sets the count bits of every cell of a cols x rows board to the number of mines around it. the other bits are left alone
+	public static void count(ByteBuffer cells, int cols, int rows) {
+		if ((long) cols * rows < PARALLEL_CELLS)
+			countRows(cells, cols, rows, 0, rows);
+		else
+			ForkJoinPool.commonPool().invoke(new Stripe(cells, cols, rows, 0, rows));
+	}
+
+	//same as count, one cell at a time. slower, but easy to check the fast one against
+	public static void countScalar(ByteBuffer cells, int cols, int rows) {
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				int count = 0;
+				for (int ny = Math.max(0, y - 1); ny <= Math.min(rows - 1, y + 1); ny++) {
+					for (int nx = Math.max(0, x - 1); nx <= Math.min(cols - 1, x + 1); nx++) {
+						if ((ny != y || nx != x) && (cells.get(ny * cols + nx) & Board.MINE) != 0)
+							count++;
+					}
+				}
+				int i = y * cols + x;
+				cells.put(i, (byte) ((cells.get(i) & ~Board.COUNT_MASK) | count));
+			}
+		}
+	}
+
+	//counts rows from up to to. only writes to those rows, so stripes can run side by side
+	private static void countRows(ByteBuffer cells, int cols, int rows, int from, int to) {
+		int padded = (cols + 2 + 7 & ~7) + 8; //room for the padding and for reading 8 bytes past any cell
+		byte[] up = new byte[padded], mid = new byte[padded], down = new byte[padded], sums = new byte[padded];
+		byte[] array = cells.hasArray() ? cells.array() : null, line = array == null ? new byte[cols] : null; //line is where rows off the heap get copied to
+		int offset = array != null ? cells.arrayOffset() : 0;
+		mineRow(cells, array, offset, line, cols, rows, from - 1, up);
+		mineRow(cells, array, offset, line, cols, rows, from, mid);
+		for (int y = from; y < to; y++) {
+			mineRow(cells, array, offset, line, cols, rows, y + 1, down);
+
+			//column sums of the three rows, padding included
+			for (int p = 0; p < cols + 2; p += 8) {
+				LONGS.set(sums, p, (long) LONGS.get(up, p) + (long) LONGS.get(mid, p) + (long) LONGS.get(down, p));
+			}
+
+			//cell x is at x + 1 in the padded rows, so its box is sums x to x + 2
+			byte[] target = array;
+			int base = offset + y * cols, x = 0;
+			if (array == null) {
+				cells.get(y * cols, line, 0, cols);
+				target = line;
+				base = 0;
+			}
+			for (; x + 8 <= cols; x += 8) {
+				long counts = (long) LONGS.get(sums, x) + (long) LONGS.get(sums, x + 1) + (long) LONGS.get(sums, x + 2) - (long) LONGS.get(mid, x + 1);
+				LONGS.set(target, base + x, ((long) LONGS.get(target, base + x) & ~COUNTS) | counts);
+			}
+			for (; x < cols; x++) {
+				int count = sums[x] + sums[x + 1] + sums[x + 2] - mid[x + 1];
+				target[base + x] = (byte) ((target[base + x] & ~Board.COUNT_MASK) | count);
+			}
+			if (array == null)
+				cells.put(y * cols, line, 0, cols);
+
+			byte[] swap = up; //and move down a row
+			up = mid;
+			mid = down;
+			down = swap;
+		}
+	}
+
+	//copies the mine bits of row y into row, as 0 or 1 per byte starting at 1. rows off the board are all 0
+	private static void mineRow(ByteBuffer cells, byte[] array, int offset, byte[] line, int cols, int rows, int y, byte[] row) {
+		if (y < 0 || y >= rows) {
+			Arrays.fill(row, (byte) 0);
+			return;
+		}
+		int base = offset + y * cols, x = 0;
+		if (array == null) {
+			cells.get(y * cols, line, 0, cols);
+			array = line;
+			base = 0;
+		}
+		for (; x + 8 <= cols; x += 8) {
+			LONGS.set(row, x + 1, ((long) LONGS.get(array, base + x) >>> MINE_SHIFT) & ONES);
+		}
+		for (; x < cols; x++) {
+			row[x + 1] = (byte) ((array[base + x] >>> MINE_SHIFT) & 1);
+		}
+	}
+
+	//a range of rows, split in half until it's small enough to count directly
+	private static class Stripe extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final ByteBuffer cells;
+		private final int cols, rows, from, to;
+
+		Stripe(ByteBuffer cells, int cols, int rows, int from, int to) {
+			this.cells = cells;
+			this.cols = cols;
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if ((long) (to - from) * cols <= STRIPE_CELLS || to - from < 2) {
+				countRows(cells, cols, rows, from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Stripe(cells, cols, rows, from, middle), new Stripe(cells, cols, rows, middle, to));
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/**
+ * Description: Debug overlay
+ * Sits over the whole window as its glass pane while debug mode is on, showing the cell under the mouse and the live latency
+ * numbers from Metrics in a box in the top left corner. It refreshes a few times a second and only ever repaints its own box.
+ * It has no mouse listeners, so clicks go straight through to the board underneath.
+ */
+
+import java.awt.*;
+import javax.swing.*;
+
+@SuppressWarnings("serial")
+public class DebugOverlay extends JComponent {
+	private static final int REFRESH_MILLIS = 250;
+	private static final int PAD = 6;
+
+	private final Timer refresh = new Timer(REFRESH_MILLIS, e -> repaintBox());
+	private Board board; //board the hovered cell is on
+	private int hovered = -1; //cell under the mouse, or -1
+	private final Rectangle box = new Rectangle(); //where the text was last drawn
+
+	public DebugOverlay() {
+		setOpaque(false);
+		setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+	}
+
+	public void setHovered(Board board, int cell) {
+		if (board == this.board && cell == hovered)
+			return;
+		this.board = board;
+		hovered = cell;
+		repaintBox();
+	}
+
+	@Override
+	public void setVisible(boolean visible) {
+		super.setVisible(visible);
+		if (visible)
+			refresh.start();
+		else
+			refresh.stop();
+	}
+
+	private void repaintBox() {
+		repaint(box.x, box.y, box.width + 1, box.height + 1);
+	}
+
+	private String[] lines() {
+		String cell = "-";
+		if (board != null && hovered >= 0)
+			cell = hovered + " (row " + hovered / board.getCols() + ", column " + hovered % board.getCols() + ")";
+		return new String[] {
+			"cell       " + cell,
+			"click      " + times(Metrics.clickToRender),
+			"cascade    " + times(Metrics.cascadeTime) + ", last " + Metrics.cascadeCells.getLast() + " cells",
+			"generate   " + times(Metrics.generate) + ", rerolls last " + Metrics.rerolls.getLast(),
+			"edt delay  " + times(Metrics.edtDelay),
+		};
+	}
+
+	private static String times(Histogram histogram) { //last, p50, p99 and max of a histogram of nanoseconds
+		return "last " + Histogram.formatNanos(histogram.getLast()) + ", p50 " + Histogram.formatNanos(histogram.percentile(0.5)) + ", p99 " + Histogram.formatNanos(histogram.percentile(0.99))
+				+ ", max " + Histogram.formatNanos(histogram.getMax());
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		String[] lines = lines();
+		FontMetrics metrics = g.getFontMetrics(getFont());
+		int width = 0;
+		for (String line : lines) {
+			width = Math.max(width, metrics.stringWidth(line));
+		}
+		int lineHeight = metrics.getHeight();
+		Rectangle next = new Rectangle(PAD, PAD, width + PAD * 2, lineHeight * lines.length + PAD * 2);
+		if (!next.equals(box)) { //the text got wider, so whatever was drawn outside the old box needs painting over too
+			Rectangle old = new Rectangle(box);
+			box.setBounds(next);
+			repaint(old.union(next));
+		}
+		g.setFont(getFont());
+		g.setColor(new Color(0, 0, 0, 190));
+		g.fillRect(box.x, box.y, box.width, box.height);
+		g.setColor(Color.white);
+		for (int i = 0; i < lines.length; i++) {
+			g.drawString(lines[i], box.x + PAD, box.y + PAD + metrics.getAscent() + i * lineHeight);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+/**
+ * Description: Event queue probe
+ * Times how long tasks wait in the Swing event queue, by posting a timestamped no-op every PERIOD_MILLIS and recording how late
+ * it runs into Metrics. This is the Swing side of the instrumentation, so Metrics itself works without a display.
+ */
+
+import java.util.concurrent.*;
+import javax.swing.SwingUtilities;
+
+public class EdtProbe {
+	private static final long PERIOD_MILLIS = 100; //how often the event queue delay is sampled
+
+	private static boolean started;
+
+	private EdtProbe() {
+	}
+
+	//starts probing in the background. only the first call does anything
+	public static synchronized void start() {
+		if (started)
+			return;
+		started = true;
+		ScheduledExecutorService probe = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "EDT probe");
+			thread.setDaemon(true);
+			return thread;
+		});
+		probe.scheduleAtFixedRate(() -> {
+			long posted = System.nanoTime();
+			SwingUtilities.invokeLater(() -> Metrics.edtDelayed(System.nanoTime() - posted));
+		}, PERIOD_MILLIS, PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+	}
+}
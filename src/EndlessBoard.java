@@ -0,0 +1,290 @@
+/**
+ * Description: Unbounded board engine for endless mode
+ * The board has no edges. It is split into CHUNK x CHUNK chunks that only exist once a cell in them is revealed or flagged.
+ * Whether a cell is a mine is a pure function of the world seed and the cell's coordinates, so a chunk (and the numbers along
+ * its borders, which depend on the neighbouring chunks) can be regenerated at any time without the neighbours having to
+ * exist. Materialized chunks are kept in a bounded LRU cache, and chunks the player has touched are written to a ChunkStore
+ * when they are evicted, so long sessions can explore millions of cells with a flat heap.
+ *
+ * Cells use the same packed bits and view() codes as Board.
+ */
+
+import java.io.*;
+import java.util.*;
+
+public class EndlessBoard implements Closeable {
+	public static final int CHUNK_BITS = 6, CHUNK = 1 << CHUNK_BITS, CHUNK_MASK = CHUNK - 1; //chunks are 64 x 64 cells
+	public static final double MIN_DENSITY = 0.12, MAX_DENSITY = 0.9; //below about 10% mines, empty regions can go on forever, so open() would never finish. at or above this every empty region is finite, so a cascade always runs to the end
+
+	private final long seed; //world seed - the whole board is determined by this and the first click
+	private final long threshold; //a cell is a mine if the top 53 bits of its hash are below this
+	private final int maxChunks; //how many chunks may be in memory at once
+	private final ChunkStore store; //where touched chunks go once they are evicted
+	private final LinkedHashMap<Long, Chunk> chunks; //in access order, so the eldest entry is the least recently used chunk
+	private Chunk lastChunk; //the chunk used last - nearly every lookup is for the same chunk as the one before it
+	private int originX, originY; //the first click. the cells around it are never mines
+	private long cellsOpened, flags; //amount of safe cells revealed and flags placed
+	private boolean dead = false, generated = false; //whether the player has died or has made their first click
+	private final IntList work = new IntList(); //scratch stack of x, y pairs used by open()
+
+	private static class Chunk {
+		final int cx, cy; //chunk coordinates
+		final byte[] cells = new byte[CHUNK * CHUNK]; //packed cells, same layout as Board
+		boolean touched; //whether anything in here was revealed or flagged, so it has to be saved when evicted
+
+		Chunk(int cx, int cy) {
+			this.cx = cx;
+			this.cy = cy;
+		}
+	}
+
+	public EndlessBoard(long seed, double density, int maxChunks, ChunkStore store) {
+		if (density < MIN_DENSITY || density > MAX_DENSITY)
+			throw new IllegalArgumentException("Mine density must be between " + MIN_DENSITY + " and " + MAX_DENSITY + ": " + density);
+		if (maxChunks < 9)
+			throw new IllegalArgumentException("Need room for at least 9 chunks: " + maxChunks);
+		this.seed = seed;
+		this.maxChunks = maxChunks;
+		this.store = store;
+		threshold = (long) (density * (1L << 53));
+		chunks = new LinkedHashMap<Long, Chunk>(maxChunks * 4 / 3 + 1, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+				if (size() <= EndlessBoard.this.maxChunks)
+					return false;
+				evict(eldest.getKey(), eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public boolean isDead() {
+		return dead;
+	}
+
+	public boolean isGenerated() {
+		return generated;
+	}
+
+	public long getCellsOpened() {
+		return cellsOpened;
+	}
+
+	public long getFlags() {
+		return flags;
+	}
+
+	public int getLoadedChunks() {
+		return chunks.size();
+	}
+
+	public int getStoredChunks() {
+		return store.size();
+	}
+
+	//whether (x, y) is a mine. this never touches the chunk cache
+	public boolean isMine(int x, int y) {
+		if (Math.abs((long) x - originX) <= 1 && Math.abs((long) y - originY) <= 1)
+			return false; //safe zone around the first click
+		long h = seed + x * 0x9E3779B97F4A7C15L + y * 0xC2B2AE3D27D4EB4FL;
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L; //splitmix64 finalizer
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		h ^= h >>> 31;
+		return (h >>> 11) < threshold;
+	}
+
+	private static long key(int cx, int cy) {
+		return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+	}
+
+	private Chunk chunk(int x, int y) {
+		int cx = x >> CHUNK_BITS, cy = y >> CHUNK_BITS;
+		Chunk chunk = lastChunk;
+		if (chunk != null && chunk.cx == cx && chunk.cy == cy)
+			return chunk;
+		long key = key(cx, cy);
+		chunk = chunks.get(key);
+		if (chunk == null) {
+			chunk = generate(cx, cy);
+			try {
+				chunk.touched = store.read(key, chunk.cells);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			chunks.put(key, chunk);
+		}
+		lastChunk = chunk;
+		return chunk;
+	}
+
+	//builds the mines and numbers for a chunk from a (CHUNK + 2) square of mines, so the numbers along the edges count the mines in the neighbouring chunks too
+	private Chunk generate(int cx, int cy) {
+		Chunk chunk = new Chunk(cx, cy);
+		int x0 = cx << CHUNK_BITS, y0 = cy << CHUNK_BITS, span = CHUNK + 2;
+		boolean[] mines = new boolean[span * span];
+		for (int y = 0; y < span; y++) {
+			for (int x = 0; x < span; x++) {
+				mines[y * span + x] = isMine(x0 + x - 1, y0 + y - 1);
+			}
+		}
+		for (int y = 0; y < CHUNK; y++) {
+			for (int x = 0; x < CHUNK; x++) {
+				int centre = (y + 1) * span + x + 1, count = 0;
+				for (int dy = -span; dy <= span; dy += span) {
+					for (int dx = -1; dx <= 1; dx++) {
+						if ((dx != 0 || dy != 0) && mines[centre + dy + dx])
+							count++;
+					}
+				}
+				chunk.cells[y * CHUNK + x] = (byte) (mines[centre] ? Board.MINE | count : count);
+			}
+		}
+		return chunk;
+	}
+
+	private void evict(long key, Chunk chunk) {
+		if (chunk == lastChunk)
+			lastChunk = null;
+		if (!chunk.touched)
+			return; //nothing the player did is in here, so it can simply be regenerated
+		try {
+			store.write(key, chunk.cells);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static int local(int x, int y) {
+		return (y & CHUNK_MASK) << CHUNK_BITS | (x & CHUNK_MASK);
+	}
+
+	//what the player gets to see at (x, y), using the same codes as Board.view. looking at cells never generates chunks that don't exist yet
+	public int view(int x, int y) {
+		Chunk chunk = lastChunk;
+		if (chunk == null || chunk.cx != x >> CHUNK_BITS || chunk.cy != y >> CHUNK_BITS) {
+			long key = key(x >> CHUNK_BITS, y >> CHUNK_BITS);
+			chunk = generated ? chunks.get(key) : null;
+			if (chunk == null && generated && store.contains(key))
+				chunk = chunk(x, y); //it was evicted with revealed cells in it, so bring it back
+			if (chunk == null)
+				return dead && isMine(x, y) ? Board.SHOWN_MINE : Board.UNOPENED;
+		}
+		int cell = chunk.cells[local(x, y)];
+		if ((cell & Board.FLAG) != 0)
+			return dead && (cell & Board.MINE) == 0 ? Board.SHOWN_WRONG_FLAG : Board.SHOWN_FLAG;
+		if ((cell & Board.MINE) != 0)
+			return (cell & Board.REVEALED) != 0 || dead ? Board.SHOWN_MINE : Board.UNOPENED;
+		return (cell & Board.REVEALED) != 0 ? cell & Board.COUNT_MASK : Board.UNOPENED;
+	}
+
+	//left click on an unopened cell. the first click sets where the safe zone is. every newly revealed cell is added to revealed as an x, y pair (if it isn't null). returns the amount of cells revealed
+	public int open(int x, int y, IntList revealed) {
+		if (dead)
+			return 0;
+		if (!generated) {
+			originX = x;
+			originY = y;
+			generated = true;
+		}
+		Chunk chunk = chunk(x, y);
+		int i = local(x, y), cell = chunk.cells[i];
+		if ((cell & (Board.REVEALED | Board.FLAG)) != 0)
+			return 0;
+		reveal(chunk, i, x, y, revealed);
+		if ((cell & Board.MINE) != 0) {
+			dead = true;
+			return 1;
+		}
+		cellsOpened++;
+		int opened = 1;
+		if ((cell & Board.COUNT_MASK) != 0)
+			return opened;
+
+		//if what we open is an empty cell, then we open all cells around it too. cells are marked revealed as they are pushed, so each is only pushed once
+		IntList stack = work;
+		stack.clear();
+		stack.add(x);
+		stack.add(y);
+		while (!stack.isEmpty()) {
+			int cy = stack.pop(), cx = stack.pop();
+			for (int dy = -1; dy <= 1; dy++) {
+				for (int dx = -1; dx <= 1; dx++) {
+					int nx = cx + dx, ny = cy + dy;
+					Chunk next = chunk(nx, ny);
+					int j = local(nx, ny), neighbour = next.cells[j];
+					if ((neighbour & (Board.REVEALED | Board.FLAG)) != 0)
+						continue; //also skips the centre cell, which is already revealed
+					reveal(next, j, nx, ny, revealed);
+					cellsOpened++;
+					opened++;
+					if ((neighbour & Board.COUNT_MASK) == 0) {
+						stack.add(nx);
+						stack.add(ny);
+					}
+				}
+			}
+		}
+		return opened;
+	}
+
+	private static void reveal(Chunk chunk, int i, int x, int y, IntList revealed) {
+		chunk.cells[i] |= Board.REVEALED;
+		chunk.touched = true;
+		if (revealed != null) {
+			revealed.add(x);
+			revealed.add(y);
+		}
+	}
+
+	//right click. flags an unopened cell or unflags a flagged one. returns whether anything changed
+	public boolean flag(int x, int y) {
+		if (dead || !generated)
+			return false;
+		Chunk chunk = chunk(x, y);
+		int i = local(x, y);
+		if ((chunk.cells[i] & Board.REVEALED) != 0)
+			return false;
+		chunk.cells[i] ^= Board.FLAG;
+		chunk.touched = true;
+		flags += (chunk.cells[i] & Board.FLAG) != 0 ? 1 : -1;
+		return true;
+	}
+
+	//left click on an opened number with the right amount of flags around it opens every other cell around it
+	public int chord(int x, int y, IntList revealed) {
+		if (dead || !generated)
+			return 0;
+		int cell = chunk(x, y).cells[local(x, y)];
+		if ((cell & Board.REVEALED) == 0 || (cell & Board.MINE) != 0 || (cell & Board.COUNT_MASK) == 0)
+			return 0;
+		int flagsAround = 0;
+		for (int dy = -1; dy <= 1; dy++) {
+			for (int dx = -1; dx <= 1; dx++) {
+				if ((chunk(x + dx, y + dy).cells[local(x + dx, y + dy)] & Board.FLAG) != 0)
+					flagsAround++;
+			}
+		}
+		if (flagsAround != (cell & Board.COUNT_MASK))
+			return 0;
+		int opened = 0;
+		for (int dy = -1; dy <= 1 && !dead; dy++) {
+			for (int dx = -1; dx <= 1 && !dead; dx++) {
+				opened += open(x + dx, y + dy, revealed);
+			}
+		}
+		return opened;
+	}
+
+	@Override
+	public void close() throws IOException {
+		chunks.clear();
+		lastChunk = null;
+		store.close();
+	}
+}
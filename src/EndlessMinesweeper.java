@@ -0,0 +1,175 @@
+/**
+ * Description: Endless mode
+ * A minesweeper game on a board with no edges, backed by an EndlessBoard. There is no winning - the score is how many cells
+ * were opened before hitting a mine. Drag with the middle mouse button (or shift + left) or use the arrow keys to move around,
+ * and use the mouse wheel or '+' and '-' to zoom.
+ */
+
+import java.awt.*;
+import java.awt.event.*;
+import java.io.*;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.swing.*;
+
+@SuppressWarnings("serial")
+public class EndlessMinesweeper extends JFrame implements MouseListener, MouseMotionListener {
+	public static final double DEFAULT_DENSITY = 0.18; //a bit easier than hard mode (about 0.2)
+	private static final int MAX_CHUNKS = 4096; //chunks kept in memory, about 16MB worth
+	private static final int DRAG_THRESHOLD = 4; //pixels the mouse has to move before a press counts as a drag rather than a click
+
+	private final double density; //mine density of every world made by this window
+	private final EndlessPanel panel; //shows the board
+	private final IntList changed = new IntList(); //cells changed by the last click, as x, y pairs
+	private Point pressed, last; //where the current drag started and where it was last seen
+	private boolean dragging; //whether the current press turned into a drag
+
+	public EndlessMinesweeper(double density) {
+		super("Endless Minesweeper");
+		this.density = density;
+		setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+		panel = new EndlessPanel(newBoard());
+		panel.addMouseListener(this);
+		panel.addMouseMotionListener(this);
+		add(panel);
+		addKeyListener(new KeyAdapter() {
+			@Override
+			public void keyPressed(KeyEvent e) {
+				int step = panel.getCellSize() * 4;
+				switch (e.getKeyCode()) {
+				case KeyEvent.VK_N:
+					newGame(); //Pressing n starts a new world
+					break;
+				case KeyEvent.VK_LEFT:
+					panel.pan(-step, 0);
+					break;
+				case KeyEvent.VK_RIGHT:
+					panel.pan(step, 0);
+					break;
+				case KeyEvent.VK_UP:
+					panel.pan(0, -step);
+					break;
+				case KeyEvent.VK_DOWN:
+					panel.pan(0, step);
+					break;
+				case KeyEvent.VK_EQUALS:
+				case KeyEvent.VK_ADD:
+					panel.zoom(1, new Point(panel.getWidth() / 2, panel.getHeight() / 2));
+					break;
+				case KeyEvent.VK_MINUS:
+				case KeyEvent.VK_SUBTRACT:
+					panel.zoom(-1, new Point(panel.getWidth() / 2, panel.getHeight() / 2));
+					break;
+				}
+			}
+		});
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosed(WindowEvent e) {
+				closeBoard(panel.getBoard());
+				System.exit(0);
+			}
+		});
+		setFocusable(true);
+		pack();
+		panel.centreOn(0, 0);
+		titleUpdate();
+		setVisible(true);
+	}
+
+	private EndlessBoard newBoard() {
+		try {
+			return new EndlessBoard(ThreadLocalRandom.current().nextLong(), density, MAX_CHUNKS, ChunkStore.temporary(EndlessBoard.CHUNK * EndlessBoard.CHUNK));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void closeBoard(EndlessBoard board) {
+		try {
+			board.close();
+		} catch (IOException e) {
+			System.out.println("Could not clean up endless board: " + e.getMessage());
+		}
+	}
+
+	public void newGame() {
+		EndlessBoard old = panel.getBoard();
+		panel.setBoard(newBoard());
+		closeBoard(old);
+		panel.centreOn(0, 0);
+		titleUpdate();
+	}
+
+	public void titleUpdate() {
+		EndlessBoard board = panel.getBoard();
+		setTitle((board.isDead() ? "DEAD - Press 'n' for a new world - " : "Endless Minesweeper - ") + "Opened: " + board.getCellsOpened() + " - Flags: " + board.getFlags()
+				+ " - Chunks: " + board.getLoadedChunks() + " loaded, " + board.getStoredChunks() + " on disk");
+	}
+
+	private boolean isPan(MouseEvent e) { //middle button, or shift + left, drags the view around
+		return SwingUtilities.isMiddleMouseButton(e) || (SwingUtilities.isLeftMouseButton(e) && e.isShiftDown());
+	}
+
+	@Override
+	public void mousePressed(MouseEvent e) {
+		pressed = e.getPoint();
+		last = pressed;
+		dragging = false;
+	}
+
+	@Override
+	public void mouseDragged(MouseEvent e) {
+		if (pressed == null || !isPan(e))
+			return;
+		if (!dragging && pressed.distance(e.getPoint()) < DRAG_THRESHOLD)
+			return;
+		dragging = true;
+		panel.pan(last.x - e.getX(), last.y - e.getY());
+		last = e.getPoint();
+	}
+
+	@Override
+	public void mouseReleased(MouseEvent e) {
+		if (dragging || isPan(e)) {
+			dragging = false;
+			return;
+		}
+		EndlessBoard board = panel.getBoard();
+		Point cell = panel.cellAt(e.getX(), e.getY());
+		changed.clear();
+		if (SwingUtilities.isRightMouseButton(e)) {
+			if (board.flag(cell.x, cell.y)) {
+				changed.add(cell.x);
+				changed.add(cell.y);
+			}
+		} else if (board.view(cell.x, cell.y) < 0) {
+			board.open(cell.x, cell.y, changed);
+		} else {
+			board.chord(cell.x, cell.y, changed);
+		}
+		if (board.isDead()) {
+			panel.repaint();
+			titleUpdate();
+			JOptionPane.showMessageDialog(null, "You lost! \nYou opened " + board.getCellsOpened() + " cells. \nPress 'n' to start a new world", "Too bad!", 1);
+		} else {
+			panel.repaintCells(changed);
+		}
+		titleUpdate();
+	}
+
+	@Override
+	public void mouseMoved(MouseEvent e) {
+	}
+
+	@Override
+	public void mouseClicked(MouseEvent e) {
+	}
+
+	@Override
+	public void mouseEntered(MouseEvent e) {
+	}
+
+	@Override
+	public void mouseExited(MouseEvent e) {
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * Description: View of an endless board
+ * Works like BoardPanel, except that there is no edge to scroll to, so instead of sitting in a JScrollPane it keeps its own
+ * view position (in board pixels) and is panned by dragging or with the arrow keys. Only the cells on screen are ever painted.
+ */
+
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+
+@SuppressWarnings("serial")
+public class EndlessPanel extends JComponent {
+	private EndlessBoard board; //the board being displayed
+	private final CellPainter painter; //draws the cells
+	private int zoom = 7; //index into BoardPanel.ZOOM_LEVELS
+	private long viewX, viewY; //board pixel at the top left corner of the panel
+
+	public EndlessPanel(EndlessBoard board) {
+		this.board = board;
+		painter = new CellPainter();
+		setOpaque(true);
+		setFocusable(false);
+		setPreferredSize(new Dimension(1000, 700));
+		addMouseWheelListener(e -> zoom(-e.getWheelRotation(), e.getPoint()));
+	}
+
+	public EndlessBoard getBoard() {
+		return board;
+	}
+
+	public void setBoard(EndlessBoard board) {
+		this.board = board;
+		repaint();
+	}
+
+	public int getCellSize() {
+		return BoardPanel.ZOOM_LEVELS[zoom];
+	}
+
+	//puts cell (x, y) in the middle of the panel
+	public void centreOn(int x, int y) {
+		int size = getCellSize();
+		viewX = (long) x * size + size / 2 - getWidth() / 2;
+		viewY = (long) y * size + size / 2 - getHeight() / 2;
+		repaint();
+	}
+
+	public void pan(int dx, int dy) { //in pixels
+		viewX += dx;
+		viewY += dy;
+		repaint();
+	}
+
+	//zooms in (steps > 0) or out (steps < 0), keeping whatever is under anchor in the same place
+	public void zoom(int steps, Point anchor) {
+		int next = Math.max(0, Math.min(BoardPanel.ZOOM_LEVELS.length - 1, zoom + steps));
+		if (next == zoom)
+			return;
+		int oldSize = getCellSize();
+		zoom = next;
+		int newSize = getCellSize();
+		viewX = (viewX + anchor.x) * newSize / oldSize - anchor.x;
+		viewY = (viewY + anchor.y) * newSize / oldSize - anchor.y;
+		repaint();
+	}
+
+	//board coordinates of the cell at pixel (x, y) of the panel
+	public Point cellAt(int x, int y) {
+		int size = getCellSize();
+		return new Point((int) Math.floorDiv(viewX + x, size), (int) Math.floorDiv(viewY + y, size));
+	}
+
+	//repaints only the area covering the given cells, which are x, y pairs
+	public void repaintCells(IntList changed) {
+		if (changed.isEmpty())
+			return;
+		long minX = Long.MAX_VALUE, minY = Long.MAX_VALUE, maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
+		for (int i = 0; i < changed.size(); i += 2) {
+			minX = Math.min(minX, changed.get(i));
+			maxX = Math.max(maxX, changed.get(i));
+			minY = Math.min(minY, changed.get(i + 1));
+			maxY = Math.max(maxY, changed.get(i + 1));
+		}
+		int size = getCellSize();
+		long left = Math.max(0, minX * size - viewX), top = Math.max(0, minY * size - viewY);
+		long right = Math.min(getWidth(), (maxX + 1) * size - viewX), bottom = Math.min(getHeight(), (maxY + 1) * size - viewY);
+		if (right > left && bottom > top)
+			repaint((int) left, (int) top, (int) (right - left), (int) (bottom - top));
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		int size = getCellSize();
+		Rectangle clip = g.getClipBounds();
+		if (clip == null)
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		g.setColor(Color.black);
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+		long firstCol = Math.floorDiv(viewX + clip.x, size), lastCol = Math.floorDiv(viewX + clip.x + clip.width - 1, size);
+		long firstRow = Math.floorDiv(viewY + clip.y, size), lastRow = Math.floorDiv(viewY + clip.y + clip.height - 1, size);
+		painter.prepare(g, size);
+		for (long row = firstRow; row <= lastRow; row++) {
+			for (long col = firstCol; col <= lastCol; col++) {
+				painter.paint(g, board.view((int) col, (int) row), (int) (col * size - viewX), (int) (row * size - viewY), size);
+			}
+		}
+	}
+}
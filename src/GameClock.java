@@ -0,0 +1,136 @@
+/**
+ * Description: Game clock
+ * Keeps a game's time from System.nanoTime(), so it never drifts or skips no matter how late a timer thread gets to run, and can be
+ * read to the nanosecond at the exact moment a game is won. The clock runs while its game is going (from the first click until it
+ * is won or lost, see follow) and isn't paused.
+ *
+ * Every clock shares one daemon thread, which only wakes up the clocks that are running to refresh whatever shows them. Refreshes
+ * are run on the Event Dispatch Thread, and at most one is ever queued per clock, so a busy EDT catches up with a single refresh
+ * instead of a backlog of them.
+ */
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+
+public class GameClock {
+	private static final long REFRESH_MILLIS = 100; //how often running clocks get shown, which is as precise as the title shows them
+
+	private static final Set<GameClock> ticking = ConcurrentHashMap.newKeySet(); //clocks that are running right now
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "Game clock");
+		thread.setDaemon(true);
+		return thread;
+	});
+	static {
+		scheduler.scheduleAtFixedRate(GameClock::tick, REFRESH_MILLIS, REFRESH_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	private final Runnable refresh; //shows the time, run on the EDT
+	private final AtomicBoolean queued = new AtomicBoolean(); //whether a refresh is already waiting on the EDT
+	private long banked; //nanoseconds from before the current run
+	private long since; //nanoTime the current run started at
+	private boolean running, paused; //running is whether the game is going, paused is whether the player stepped away from it
+
+	public GameClock(Runnable refresh) {
+		this.refresh = refresh;
+	}
+
+	public synchronized long getNanos() {
+		return banked + (isRunning() ? System.nanoTime() - since : 0);
+	}
+
+	public long getMillis() {
+		return getNanos() / 1000000;
+	}
+
+	public double getSeconds() {
+		return getNanos() / 1e9;
+	}
+
+	//whether time is passing right now
+	public synchronized boolean isRunning() {
+		return running && !paused;
+	}
+
+	public synchronized boolean isPaused() {
+		return paused;
+	}
+
+	public synchronized void start() {
+		if (running)
+			return;
+		running = true;
+		if (!paused)
+			begin();
+	}
+
+	public synchronized void stop() {
+		if (!running)
+			return;
+		if (!paused)
+			end();
+		running = false;
+	}
+
+	public synchronized void pause() {
+		if (paused)
+			return;
+		if (running)
+			end();
+		paused = true;
+	}
+
+	public synchronized void resume() {
+		if (!paused)
+			return;
+		paused = false;
+		if (running)
+			begin();
+	}
+
+	//stops (and unpauses) the clock and sets it to millis, e.g. 0 for a new game or the time a saved game was at
+	public synchronized void reset(long millis) {
+		running = false;
+		paused = false;
+		ticking.remove(this);
+		banked = millis * 1000000;
+		queueRefresh();
+	}
+
+	//starts or stops the clock to match board: it runs from the first click until the game is won or lost.
+	//call this after every move, so the time a game ends at is the time of the move that ended it and not of the next tick
+	public void follow(Board board) {
+		if (board.isGenerated() && !board.isOver())
+			start();
+		else
+			stop();
+	}
+
+	private void begin() {
+		since = System.nanoTime();
+		ticking.add(this);
+	}
+
+	private void end() {
+		banked += System.nanoTime() - since;
+		ticking.remove(this);
+		queueRefresh(); //one more, to show the time it stopped at
+	}
+
+	private static void tick() {
+		for (GameClock clock : ticking) {
+			clock.queueRefresh();
+		}
+	}
+
+	private void queueRefresh() {
+		if (queued.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(() -> {
+				queued.set(false); //cleared first, so a tick that comes in while refreshing still gets shown
+				refresh.run();
+			});
+		}
+	}
+}
@@ -0,0 +1,317 @@
+/**
+ * Description: Headless game server
+ * Hosts any amount of independent games over TCP on the loopback interface, one game per connection. Each connection gets its
+ * own thread (a virtual thread when the JVM has them, otherwise a small-stack platform thread) which owns its Board outright, so
+ * playing a move never takes a lock or touches anything shared besides a few counters. Started from main, it also reports its
+ * boards to Metrics and registers them with JMX.
+ *
+ * The protocol is plain text, one command per line, with cells given as x y:
+ *   NEW cols rows mines [seed]  starts a new game (a random seed is picked if there is none). answered with GAME cols rows mines seed
+ *   OPEN x y, FLAG x y, CHORD x y  play a move. answered with DELTA status minesLeft n followed by n triples of x y value
+ *   BOARD  answered with the same DELTA line, listing every cell that isn't unopened
+ *   STATS  answered with STATS sessions games moves, counted over the whole server
+ *   QUIT   closes the connection
+ * status is PLAYING, WON or LOST, and values are the Board.view() codes (0-8 for opened cells, 9 for a mine, 10 for a flag,
+ * 11 for a wrong flag, -1 for a cell that was unflagged). A DELTA only lists the cells the move changed, plus every mine and flag
+ * when the move ended the game. Anything that goes wrong is answered with ERR and a message, and the connection stays open.
+ * Responses are only flushed once the client has no more commands waiting, so pipelined commands get batched into one write.
+ *
+ * Usage: java GameServer [--port n] [--max-cells n]. LoadGenerator plays lots of bot games against it. The same protocol can also be
+ * spoken over any pair of streams with no server at all (see playLocal), which is how Minesweeper --headless runs scripts.
+ */
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class GameServer implements Closeable {
+	public static final int DEFAULT_PORT = 4757;
+	private static final int BACKLOG = 4096; //connections waiting to be accepted, for when thousands of bots connect at once
+	private static final long STACK_SIZE = 256 * 1024; //stack of each connection's thread when they have to be platform threads
+	private static final int IDLE_TIMEOUT = 10 * 60 * 1000; //connections that don't send anything for this long are dropped
+
+	private final ServerSocket server; //null for a local session (see playLocal)
+	private final ExecutorService executor; //runs one Session per connection, null for a local session
+	private final int maxCells; //largest board a session may ask for, so one client can't use up all the memory
+	private final Set<Session> sessions = ConcurrentHashMap.newKeySet(); //open connections, to close them on shutdown
+	private final LongAdder games = new LongAdder(), moves = new LongAdder(); //totals over every session
+	private volatile Board.Listener listener; //set on every board the sessions start, or null
+
+	public GameServer(int port, int maxCells) throws IOException {
+		server = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+		executor = newPerTaskExecutor("Session");
+		this.maxCells = maxCells;
+	}
+
+	private GameServer(int maxCells) {
+		server = null;
+		executor = null;
+		this.maxCells = maxCells;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT, maxCells = 1 << 24;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--port":
+				port = Integer.parseInt(args[++i]);
+				break;
+			case "--max-cells":
+				maxCells = Integer.parseInt(args[++i]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+		GameServer server = new GameServer(port, maxCells);
+		server.setListener(Metrics.boards);
+		Metrics.register();
+		System.out.println("Listening on " + server.server.getLocalSocketAddress());
+		server.run();
+	}
+
+	//a thread per task: virtual threads if this JVM has them (Java 21 on), since they are what makes tens of thousands of blocking connections cheap,
+	//and small-stack daemon threads otherwise. looked up by reflection so this still builds for Java 17
+	static ExecutorService newPerTaskExecutor(String name) {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) { //missing, or a preview feature that isn't turned on
+			return Executors.newCachedThreadPool(r -> {
+				Thread thread = new Thread(null, r, name, STACK_SIZE);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	//boards of games started from now on report to listener (e.g. Metrics.boards). none do by default
+	public void setListener(Board.Listener listener) {
+		this.listener = listener;
+	}
+
+	//plays one session over in and out on the calling thread, with no socket involved, until in runs out or QUIT comes in
+	public static void playLocal(InputStream in, OutputStream out, int maxCells) throws IOException {
+		GameServer local = new GameServer(maxCells);
+		Session session = local.new Session(null);
+		local.sessions.add(session);
+		session.serve(in, out);
+	}
+
+	//accepts connections until the server is closed
+	public void run() throws IOException {
+		try {
+			while (true) {
+				Socket socket = server.accept();
+				Session session = new Session(socket);
+				sessions.add(session);
+				executor.execute(session);
+			}
+		} catch (SocketException e) {
+			if (!server.isClosed())
+				throw e;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		server.close();
+		for (Session session : sessions) {
+			session.close();
+		}
+		executor.shutdownNow();
+	}
+
+	//one connection and its game. only ever touched by the thread running it
+	private class Session implements Runnable {
+		private final Socket socket; //null when playing over plain streams
+		private Board board;
+		private final IntList changed = new IntList(); //cells changed by the current move
+		private final StringBuilder reply = new StringBuilder(); //reused for every response
+		private final int[] args = new int[3]; //numbers after the command word
+		private long seed; //fourth number after the command word, the only one that can be a long
+		private BufferedReader in;
+		private Writer out;
+
+		Session(Socket socket) {
+			this.socket = socket;
+		}
+
+		@Override
+		public void run() {
+			try {
+				socket.setTcpNoDelay(true); //every response is one small write, so don't hold it back waiting for more
+				socket.setSoTimeout(IDLE_TIMEOUT);
+				serve(socket.getInputStream(), socket.getOutputStream());
+			} catch (IOException e) {
+				//the client went away. nothing to clean up besides the socket
+			} finally {
+				close();
+				sessions.remove(this);
+			}
+		}
+
+		void serve(InputStream input, OutputStream output) throws IOException {
+			in = new BufferedReader(new InputStreamReader(input, StandardCharsets.US_ASCII));
+			out = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.US_ASCII), 8192);
+			String line;
+			while ((line = in.readLine()) != null) {
+				reply.setLength(0);
+				boolean more = handle(line);
+				reply.append('\n');
+				out.append(reply);
+				if (!more)
+					break;
+				if (!in.ready())
+					out.flush(); //nothing else is queued up, so the client is waiting on this
+			}
+			out.flush();
+		}
+
+		void close() {
+			if (socket == null)
+				return;
+			try {
+				socket.close();
+			} catch (IOException e) {
+				//already closed
+			}
+		}
+
+		//runs one command, leaving the response in reply. returns false once the connection should be closed
+		private boolean handle(String line) {
+			int end = line.indexOf(' ');
+			String command = (end < 0 ? line : line.substring(0, end)).toUpperCase(Locale.ROOT);
+			int n;
+			try {
+				n = parseArgs(line, end < 0 ? line.length() : end);
+			} catch (NumberFormatException e) {
+				reply.append("ERR bad number in: ").append(line);
+				return true;
+			}
+			switch (command) {
+			case "NEW":
+				newGame(n);
+				return true;
+			case "OPEN":
+			case "FLAG":
+			case "CHORD":
+				move(command, n);
+				return true;
+			case "BOARD":
+				if (board == null) {
+					reply.append("ERR no game");
+					return true;
+				}
+				changed.clear();
+				for (int i = 0; i < board.size(); i++) {
+					if (board.view(i) != Board.UNOPENED)
+						changed.add(i);
+				}
+				delta();
+				return true;
+			case "STATS":
+				reply.append("STATS ").append(sessions.size()).append(' ').append(games.sum()).append(' ').append(moves.sum());
+				return true;
+			case "QUIT":
+				reply.append("BYE");
+				return false;
+			default:
+				reply.append("ERR unknown command: ").append(command);
+				return true;
+			}
+		}
+
+		//reads the space separated numbers starting at from into args and seed. returns how many there were
+		private int parseArgs(String line, int from) {
+			int n = 0, i = from, length = line.length();
+			while (i < length) {
+				while (i < length && line.charAt(i) == ' ')
+					i++;
+				if (i == length)
+					break;
+				int start = i;
+				while (i < length && line.charAt(i) != ' ')
+					i++;
+				if (n > args.length)
+					throw new NumberFormatException("too many numbers");
+				if (n == args.length)
+					seed = Long.parseLong(line, start, i, 10);
+				else
+					args[n] = Integer.parseInt(line, start, i, 10);
+				n++;
+			}
+			return n;
+		}
+
+		private void newGame(int n) {
+			if (n < 3) {
+				reply.append("ERR usage: NEW cols rows mines [seed]");
+				return;
+			}
+			int cols = args[0], rows = args[1], mines = args[2];
+			if (cols <= 0 || rows <= 0 || (long) cols * rows > maxCells) {
+				reply.append("ERR board has to be between 1 and ").append(maxCells).append(" cells");
+				return;
+			}
+			if (mines <= 0 || mines > Board.maxMines(cols, rows)) {
+				reply.append("ERR invalid amount of mines: ").append(mines);
+				return;
+			}
+			board = new Board(cols, rows, mines, n > 3 ? seed : ThreadLocalRandom.current().nextLong());
+			board.setListener(listener);
+			games.increment();
+			reply.append("GAME ").append(cols).append(' ').append(rows).append(' ').append(mines).append(' ').append(board.getSeed());
+		}
+
+		private void move(String command, int n) {
+			if (board == null) {
+				reply.append("ERR no game");
+				return;
+			}
+			int x = args[0], y = args[1];
+			if (n != 2 || x < 0 || y < 0 || x >= board.getCols() || y >= board.getRows()) {
+				reply.append("ERR usage: ").append(command).append(" x y, inside the board");
+				return;
+			}
+			int index = y * board.getCols() + x;
+			boolean over = board.isOver();
+			changed.clear();
+			switch (command) {
+			case "OPEN":
+				board.open(index, changed);
+				break;
+			case "FLAG":
+				if (board.flag(index))
+					changed.add(index);
+				break;
+			default:
+				board.chord(index, changed);
+			}
+			moves.increment();
+			if (!over && board.isOver()) { //every mine is shown (or flagged) now, so pass those on too
+				for (int i = 0; i < board.size(); i++) {
+					if ((board.getCell(i) & (Board.MINE | Board.FLAG)) != 0 && !board.isRevealed(i))
+						changed.add(i);
+				}
+			}
+			delta();
+		}
+
+		//DELTA status minesLeft n x y value... for the cells in changed
+		private void delta() {
+			int cols = board.getCols();
+			reply.append("DELTA ").append(board.isSolved() ? "WON" : board.isDead() ? "LOST" : "PLAYING").append(' ').append(board.getMinesLeft()).append(' ').append(changed.size());
+			for (int i = 0; i < changed.size(); i++) {
+				int cell = changed.get(i);
+				reply.append(' ').append(cell % cols).append(' ').append(cell / cols).append(' ').append(board.view(cell));
+			}
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * Description: Latency histogram
+ * Counts values (usually nanoseconds) into buckets that get wider as the values get bigger, the way HdrHistogram does: every
+ * power of two is split into 16 buckets, so any percentile read back is within about 6% of the real one, for any value from 1ns to
+ * hours, in a fixed 8KB of counters. Recording is a couple of atomic increments with no locks and no allocation, so it can sit on
+ * the paths being measured, and any thread can record while another one reads.
+ */
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.atomic.*;
+
+public class Histogram {
+	private static final int SUB_BITS = 4, SUB = 1 << SUB_BITS; //buckets per power of two
+	private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB; //enough for any positive long
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+	private volatile long last; //the most recent value, for showing live
+
+	//what a histogram looked like at one point, in the units it was recorded in. laid out with getters so JMX can show it (see MetricsMXBean)
+	public static class Summary {
+		private final long count, mean, p50, p90, p99, p999, max;
+
+		@ConstructorProperties({"count", "mean", "p50", "p90", "p99", "p999", "max"})
+		public Summary(long count, long mean, long p50, long p90, long p99, long p999, long max) {
+			this.count = count;
+			this.mean = mean;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+			this.p999 = p999;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getMean() {
+			return mean;
+		}
+
+		public long getP50() {
+			return p50;
+		}
+
+		public long getP90() {
+			return p90;
+		}
+
+		public long getP99() {
+			return p99;
+		}
+
+		public long getP999() {
+			return p999;
+		}
+
+		public long getMax() {
+			return max;
+		}
+	}
+
+	public void record(long value) {
+		if (value < 0)
+			value = 0; //nanoTime differences can't go backwards, but be safe
+		counts.incrementAndGet(bucket(value));
+		sum.add(value);
+		last = value;
+		if (value > max.get()) //rarely true once things warm up, so the CAS loop is rarely hit
+			max.accumulateAndGet(value, Math::max);
+	}
+
+	//values below SUB get a bucket each, after that every power of two gets SUB buckets
+	private static int bucket(long value) {
+		if (value < SUB)
+			return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		return (exponent - SUB_BITS + 1) * SUB + (int) (value >>> (exponent - SUB_BITS)) % SUB;
+	}
+
+	//the highest value that lands in bucket
+	private static long highest(int bucket) {
+		if (bucket < SUB)
+			return bucket;
+		int exponent = bucket / SUB + SUB_BITS - 1, step = exponent - SUB_BITS;
+		return (1L << exponent) + ((long) (bucket % SUB) << step) + (1L << step) - 1;
+	}
+
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	public long getLast() {
+		return last;
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	//the value that fraction (0 to 1) of all recorded values are at or below, rounded up to the end of its bucket
+	public long percentile(double fraction) {
+		long count = getCount(), seen = 0, target = Math.max(1, (long) Math.ceil(fraction * count));
+		if (count == 0)
+			return 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= target)
+				return Math.min(highest(i), max.get());
+		}
+		return max.get();
+	}
+
+	public Summary summary() {
+		long count = getCount();
+		return new Summary(count, count == 0 ? 0 : sum.sum() / count, percentile(0.5), percentile(0.9), percentile(0.99), percentile(0.999), max.get());
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		sum.reset();
+		max.set(0);
+		last = 0;
+	}
+
+	//a nanosecond value written short, e.g. 850ns, 12.3us, 4.56ms or 2.1s
+	public static String formatNanos(long nanos) {
+		if (nanos < 1000)
+			return nanos + "ns";
+		if (nanos < 1000000)
+			return String.format("%.1fus", nanos / 1e3);
+		if (nanos < 1000000000)
+			return String.format("%.2fms", nanos / 1e6);
+		return String.format("%.1fs", nanos / 1e9);
+	}
+}
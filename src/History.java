@@ -0,0 +1,356 @@
+/**
+ * Description: Game history
+ * Undo, redo and replays, built on a Journal. The moves of the current game form a line; undo steps back along it and redo
+ * steps forward again, until a new move cuts off whatever was undone. Going to any point of the line restores the nearest
+ * snapshot before it and replays the moves from there, so it never takes more than a snapshot interval worth of moves.
+ *
+ * Snapshots are whole copies of the board, so the interval grows with the size of the board, and there is a memory budget for
+ * them. Once it runs out, the interval doubles and every other snapshot is dropped. Boards too big for even two snapshots just replay from the start of the game.
+ * Snapshots due after a player's move are taken later, on the executor the history was given, so the move itself never waits
+ * for a copy. If another move gets in first, that snapshot is skipped and going back starts from the one before.
+ *
+ * The same class replays journals: replay() starts at the first entry and playTo() goes to any entry, back or forth.
+ * Games that were resumed from a save can't be replayed on their own, since the journal doesn't know where they started.
+ * While they're being played, their start is kept as a snapshot instead, unless the board is too big for snapshots. Then there
+ * is nothing to go back from, so their moves can't be undone at all.
+ */
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+public class History implements Board.Recorder {
+	private static final int INTERVAL = 64; //fewest moves between snapshots
+	private static final int CELLS_PER_MOVE = 256; //bigger boards space their snapshots out more, so copying them costs at most about this many bytes per move
+	private static final long SNAPSHOT_BUDGET = 64L << 20; //bytes of snapshots kept per game
+
+	private final Journal journal; //every entry of every game
+	private final boolean live; //whether moves are being made by a player (and journaled), rather than replayed from the journal
+	private final Executor later; //takes the snapshots that come due after a move
+	private int cursor; //entries up to here have been played
+	private Board board; //the game being played
+	private int gameFlags; //the GAME flags of the current game
+	private Board.Snapshot start; //the board at the start of a resumed game, since it can't be remade from the seed
+	private boolean restartable; //whether the board can be put back to the start of the game. not for resumed games too big to snapshot
+	private final IntList line = new IntList(); //journal indices of the moves of the current game, in order
+	private int applied; //how much of line the board is showing. the rest can be redone
+	private int interval = INTERVAL; //moves between snapshots
+	private final Map<Integer, Saved> snapshots = new HashMap<>(); //snapshots, by the journal index of the last move they include
+	private long snapshotBytes; //how much the snapshots take up
+	private IntList games; //indices of the GAME_SIZE entries, for replays. worked out the first time they're needed
+
+	private static class Saved {
+		final int position; //how many moves of the line are in it
+		final Board.Snapshot snapshot;
+
+		Saved(int position, Board.Snapshot snapshot) {
+			this.position = position;
+			this.snapshot = snapshot;
+		}
+	}
+
+	//keeps the history of games played by a player, adding to journal. snapshots are taken right after the move they follow
+	public History(Journal journal) {
+		this(journal, true, Runnable::run);
+	}
+
+	//same, but snapshots are taken on later (e.g. the event queue, once the move has been handled and painted)
+	public History(Journal journal, Executor later) {
+		this(journal, true, later);
+	}
+
+	private History(Journal journal, boolean live, Executor later) {
+		this.journal = journal;
+		this.live = live;
+		this.later = later;
+	}
+
+	//a history that replays journal, starting before its first entry
+	public static History replay(Journal journal) {
+		return new History(journal, false, Runnable::run);
+	}
+
+	public Journal getJournal() {
+		return journal;
+	}
+
+	public Board getBoard() {
+		return board;
+	}
+
+	public int getCursor() {
+		return cursor;
+	}
+
+	public boolean canUndo() {
+		return board != null && restartable && applied > 0;
+	}
+
+	public boolean canRedo() {
+		return board != null && applied < line.size();
+	}
+
+	//starts journaling a new game on board. if the board was already being played, it's journaled as resumed from where it is
+	public void startGame(Board board) {
+		int flags = board.isGenerated() ? Journal.RESUMED : board.isPregenerated() ? Journal.PREGENERATED : 0;
+		journal.append(Journal.GAME_SIZE, board.getCols(), (long) board.getRows() << 32 | board.getMineCount());
+		journal.append(Journal.GAME, flags, board.getSeed());
+		cursor = journal.size();
+		begin(board, flags);
+	}
+
+	//the same game carries on, on a different Board object with the same cells (e.g. one that plays out of a save file)
+	public void setBoard(Board board) {
+		if (this.board != null)
+			this.board.setRecorder(null);
+		this.board = board;
+		if (live)
+			board.setRecorder(this);
+	}
+
+	private void begin(Board board, int flags) {
+		setBoard(board);
+		gameFlags = flags;
+		boolean resumed = (flags & Journal.RESUMED) != 0;
+		restartable = !resumed || snapshotsFit(board); //a resumed save can be gigabytes, far too much to copy onto the heap
+		start = resumed && restartable ? board.snapshot() : null;
+		line.clear();
+		applied = 0;
+		snapshots.clear();
+		snapshotBytes = 0;
+		interval = Math.max(INTERVAL, Integer.highestOneBit(board.size() / CELLS_PER_MOVE)); //restoring a snapshot costs about as much as replaying the interval anyways
+	}
+
+	//called by the board after every move the player makes
+	@Override
+	public void record(int type, int cell) {
+		cursor = journal.append(type, cell, 0) + 1;
+		moved(cursor - 1);
+	}
+
+	//adds the move at journal index entry to the line, cutting off anything that could have been redone
+	private void moved(int entry) {
+		if (applied < line.size()) {
+			for (int p = applied; p < line.size(); p++) {
+				Saved dropped = snapshots.remove(line.get(p));
+				if (dropped != null)
+					snapshotBytes -= dropped.snapshot.bytes();
+			}
+			line.truncate(applied);
+		}
+		line.add(entry);
+		applied++;
+		if (applied % interval == 0) {
+			Board moved = board;
+			later.execute(() -> {
+				if (board == moved && applied > 0 && line.get(applied - 1) == entry) //nothing has happened since
+					snapshotIfDue();
+			});
+		}
+	}
+
+	public boolean undo() {
+		if (!canUndo())
+			return false;
+		cursor = journal.append(Journal.UNDO, -1, 0) + 1;
+		seek(applied - 1);
+		return true;
+	}
+
+	public boolean redo() {
+		if (!canRedo())
+			return false;
+		cursor = journal.append(Journal.REDO, -1, 0) + 1;
+		seek(applied + 1);
+		return true;
+	}
+
+	//puts the board at position moves into the line, from the nearest snapshot at or before it
+	private void seek(int position) {
+		if (position > applied && position - applied <= interval) { //going forward a little is quickest from where we are
+			replayLine(applied, position);
+			return;
+		}
+		restoreTo(position);
+	}
+
+	//same as seek, but never starts from where the board is now - for when the line has just been rebuilt
+	private void restoreTo(int position) {
+		int from = position / interval * interval;
+		Saved saved = null;
+		while (from > 0 && ((saved = snapshots.get(line.get(from - 1))) == null || saved.position != from)) {
+			from -= interval;
+		}
+		if (from > 0)
+			board.restore(saved.snapshot);
+		else
+			restart();
+		replayLine(from, position);
+	}
+
+	//plays the moves of the line from from to to on the board, which has to be at from
+	private void replayLine(int from, int to) {
+		Board.Recorder recorder = board.getRecorder();
+		board.setRecorder(null); //these moves are already in the journal
+		for (int p = from; p < to; p++) {
+			perform(line.get(p));
+			applied = p + 1;
+			snapshotIfDue();
+		}
+		applied = to;
+		board.setRecorder(recorder);
+	}
+
+	//puts the board back to the start of the game
+	private void restart() {
+		if (!restartable)
+			throw new IllegalStateException("This game was resumed on a board too big to keep its start");
+		if (start != null) {
+			board.restore(start);
+		} else {
+			Board.Recorder recorder = board.getRecorder();
+			board.setRecorder(null);
+			board.clear(board.getSeed());
+			if ((gameFlags & Journal.PREGENERATED) != 0)
+				board.pregenerate();
+			board.setRecorder(recorder);
+		}
+	}
+
+	//makes the move at journal index entry on the board
+	private void perform(int entry) {
+		int cell = journal.arg(entry);
+		switch (journal.type(entry)) {
+		case Journal.OPEN:
+			board.open(cell);
+			break;
+		case Journal.FLAG:
+		case Journal.UNFLAG:
+			board.flag(cell);
+			break;
+		case Journal.CHORD:
+			board.chord(cell);
+			break;
+		case Journal.RESET:
+			board.reset();
+			break;
+		case Journal.REVEAL_ALL:
+			board.revealAll();
+			break;
+		}
+	}
+
+	private void snapshotIfDue() {
+		if (applied % interval != 0 || applied == 0 || snapshots.containsKey(line.get(applied - 1)))
+			return;
+		if (!snapshotsFit(board))
+			return; //not even two would fit, so don't bother
+		Board.Snapshot snapshot = board.snapshot();
+		snapshots.put(line.get(applied - 1), new Saved(applied, snapshot));
+		snapshotBytes += snapshot.bytes();
+		while (snapshotBytes > SNAPSHOT_BUDGET) { //out of room, so keep every other one
+			interval *= 2;
+			for (Iterator<Saved> i = snapshots.values().iterator(); i.hasNext();) {
+				Saved saved = i.next();
+				if (saved.position % interval != 0) {
+					snapshotBytes -= saved.snapshot.bytes();
+					i.remove();
+				}
+			}
+		}
+	}
+
+	//whether at least two snapshots of board fit in the budget
+	private static boolean snapshotsFit(Board board) {
+		return (long) board.size() * 2 <= SNAPSHOT_BUDGET;
+	}
+
+	//replays the next journal entry. returns false at the end of the journal
+	public boolean step() {
+		if (cursor >= journal.size())
+			return false;
+		int entry = cursor++, type = journal.type(entry);
+		if (type == Journal.GAME) {
+			long size = journal.value(entry - 1);
+			Board next = new Board(journal.arg(entry - 1), (int) (size >>> 32), (int) size, journal.value(entry));
+			if ((journal.arg(entry) & Journal.PREGENERATED) != 0)
+				next.pregenerate();
+			begin(next, journal.arg(entry) & ~Journal.RESUMED); //a resumed game gets replayed from a fresh board, which is the best that can be done
+		} else if (board == null) {
+			return true; //moves before the first game, which can't happen unless the journal is broken
+		} else if (Journal.isMove(type)) {
+			perform(entry);
+			moved(entry);
+		} else if (type == Journal.UNDO && applied > 0) {
+			seek(applied - 1);
+		} else if (type == Journal.REDO && applied < line.size()) {
+			seek(applied + 1);
+		}
+		return true;
+	}
+
+	//replays up to (not including) journal entry target, going back if it's already past it
+	public void playTo(int target) {
+		target = Math.max(0, Math.min(target, journal.size()));
+		if (target < cursor) {
+			int game = gameBefore(target);
+			if (game < 0) {
+				board = null;
+				cursor = 0;
+				return;
+			}
+			if (board == null || gameBefore(cursor) != game) {
+				cursor = game; //a different game, so start it over
+			} else {
+				//the same game: work out the line up to target (just bookkeeping), then move the board there
+				rebuildLine(game + 2, target);
+				restoreTo(applied);
+				cursor = target;
+				return;
+			}
+		}
+		while (cursor < target) {
+			step();
+		}
+	}
+
+	//redoes the line as it was at journal index target, from the start of the game at from, without touching the board
+	private void rebuildLine(int from, int target) {
+		line.clear();
+		int position = 0;
+		for (int entry = from; entry < target; entry++) {
+			int type = journal.type(entry);
+			if (Journal.isMove(type)) {
+				line.truncate(position);
+				line.add(entry);
+				position++;
+			} else if (type == Journal.UNDO && position > 0) {
+				position--;
+			} else if (type == Journal.REDO && position < line.size()) {
+				position++;
+			}
+		}
+		applied = position;
+	}
+
+	//index of the GAME_SIZE entry of the game that entry target is in (or comes right after), or -1 if there is none
+	private int gameBefore(int target) {
+		if (games == null) {
+			games = new IntList();
+			for (int i = 0; i + 1 < journal.size(); i++) {
+				if (journal.type(i) == Journal.GAME_SIZE && journal.type(i + 1) == Journal.GAME)
+					games.add(i);
+			}
+		}
+		int found = -1;
+		for (int lo = 0, hi = games.size() - 1; lo <= hi;) {
+			int mid = (lo + hi) >>> 1;
+			if (games.get(mid) + 2 <= target) {
+				found = games.get(mid);
+				lo = mid + 1;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return found;
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * Description: Cell icons
+ * The mine, flag and crossed out flag pictures, in the order of Board.SHOWN_MINE and onwards. They are decoded in the background,
+ * all at once, from the first time anything asks for them, so building a window never waits on image decoding, and painting only
+ * waits if a mine or flag shows up before they are done. A picture that can't be read gets a plain drawn stand-in instead of
+ * taking the game down with it.
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+public class Icons {
+	public static final int MINE = 0, FLAG = 1, WRONG_FLAG = 2;
+	private static final String[] FILES = {"mine-sweeper.png", "flag.png", "flagx.png"};
+	private static final int STAND_IN_SIZE = 32;
+
+	private static CompletableFuture<?>[] loading; //one per picture, started by the first call to preload or get
+
+	private Icons() {
+	}
+
+	//starts decoding every picture in the background. only the first call does anything
+	public static synchronized void preload() {
+		if (loading != null)
+			return;
+		loading = new CompletableFuture<?>[FILES.length];
+		for (int i = 0; i < FILES.length; i++) {
+			int which = i;
+			loading[i] = CompletableFuture.supplyAsync(() -> load(which));
+		}
+	}
+
+	//the picture for MINE, FLAG or WRONG_FLAG, waiting for it to be decoded if it isn't yet
+	public static ImageIcon get(int which) {
+		CompletableFuture<?> icon;
+		synchronized (Icons.class) {
+			preload();
+			icon = loading[which];
+		}
+		return (ImageIcon) icon.join();
+	}
+
+	private static ImageIcon load(int which) {
+		try {
+			URL url = Icons.class.getResource(FILES[which]);
+			if (url == null)
+				throw new IOException("not found");
+			return new ImageIcon(ImageIO.read(url));
+		} catch (IOException | RuntimeException e) {
+			System.out.println("Picture " + FILES[which] + " could not be read (" + e.getMessage() + "), drawing a stand-in");
+			return new ImageIcon(standIn(which));
+		}
+	}
+
+	//a black dot for a mine, a red pennant for a flag, and the pennant crossed out for a wrong flag
+	private static Image standIn(int which) {
+		int s = STAND_IN_SIZE;
+		BufferedImage image = new BufferedImage(s, s, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		if (which == MINE) {
+			g.setColor(Color.black);
+			g.fillOval(s / 4, s / 4, s / 2, s / 2);
+		} else {
+			g.setColor(Color.black);
+			g.fillRect(s / 2 - 1, s / 6, 2, s * 2 / 3);
+			g.setColor(Color.red);
+			g.fillPolygon(new int[] {s / 2 + 1, s / 2 + 1, s / 6}, new int[] {s / 6, s / 2, s / 3}, 3);
+			if (which == WRONG_FLAG) {
+				g.setColor(Color.black);
+				g.setStroke(new BasicStroke(2));
+				g.drawLine(s / 6, s / 6, s * 5 / 6, s * 5 / 6);
+				g.drawLine(s * 5 / 6, s / 6, s / 6, s * 5 / 6);
+			}
+		}
+		g.dispose();
+		return image;
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * Description: Growable list of primitive ints
+ * Used as a work queue/stack and as the list of cells changed by an action, without boxing every index into an Integer.
+ */
+
+import java.util.*;
+
+public class IntList {
+	private int[] data; //backing array, grown by doubling
+	private int size; //amount of ints actually in the list
+
+	public IntList() {
+		this(16);
+	}
+
+	public IntList(int capacity) {
+		data = new int[Math.max(1, capacity)];
+	}
+
+	public void add(int value) {
+		if (size == data.length)
+			data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE - 8, data.length * 2L));
+		data[size++] = value;
+	}
+
+	public int get(int index) {
+		if (index >= size)
+			throw new IndexOutOfBoundsException(index + " >= " + size);
+		return data[index];
+	}
+
+	public void set(int index, int value) {
+		if (index >= size)
+			throw new IndexOutOfBoundsException(index + " >= " + size);
+		data[index] = value;
+	}
+
+	public int pop() { //removes and returns the last int, so the list can be used as a stack
+		if (size == 0)
+			throw new NoSuchElementException();
+		return data[--size];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	public void truncate(int newSize) { //drops everything from newSize on
+		if (newSize < 0 || newSize > size)
+			throw new IndexOutOfBoundsException(newSize + " > " + size);
+		size = newSize;
+	}
+
+	public int[] toArray() {
+		return Arrays.copyOf(data, size);
+	}
+}
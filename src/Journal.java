@@ -0,0 +1,157 @@
+/**
+ * Description: Move journal
+ * An append-only record of everything that happens to a game: every game started, every open, flag, unflag and chord, resets,
+ * and undos and redos. Replaying a journal (see History) gives back the exact same boards, so a journal is all that's needed
+ * to look into how a game went.
+ *
+ * Every entry is 16 bytes: the type and an int (usually a cell) in one long, and a long value in the other. Appending only
+ * stores the two longs in an array, so it costs next to nothing on the input path. If the journal is being written to a file,
+ * a background thread writes out whatever is new every so often.
+ *
+ * File layout: the int "JMSJ", the int version, then the entries as two big endian longs each.
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+public class Journal implements Closeable {
+	//entry types. a game starts with GAME_SIZE (arg: columns, value: rows and mines) and then GAME (arg: flags below, value: seed)
+	public static final int GAME_SIZE = 1, GAME = 2, OPEN = 3, FLAG = 4, UNFLAG = 5, CHORD = 6, RESET = 7, REVEAL_ALL = 8, UNDO = 9, REDO = 10;
+	public static final int PREGENERATED = 1, RESUMED = 2; //GAME flags. a resumed game was already being played (e.g. loaded from a save), so it can't be remade from the seed alone
+	private static final String[] NAMES = {"?", "size", "game", "open", "flag", "unflag", "chord", "reset", "reveal all", "undo", "redo"};
+	private static final int MAGIC = 0x4A4D534A, VERSION = 1, HEADER_SIZE = 8, ENTRY_SIZE = 16;
+	private static final long FLUSH_MILLIS = 250; //how often new entries get written out
+
+	private long[] entries = new long[2048]; //two longs per entry
+	private volatile int size; //entries[0..size * 2) are filled in. only the thread making the moves appends, so this is only volatile for the writer thread
+	private FileChannel file; //where the journal is being written, if anywhere
+	private ScheduledExecutorService writer; //writes new entries to file in the background
+	private int written; //entries already in the file
+
+	//every move type, which are the entries that change the board
+	public static boolean isMove(int type) {
+		return type >= OPEN && type <= REVEAL_ALL;
+	}
+
+	public static String name(int type) {
+		return type > 0 && type < NAMES.length ? NAMES[type] : NAMES[0];
+	}
+
+	//adds an entry to the end and returns its index
+	public int append(int type, int arg, long value) {
+		int index = size;
+		if (index * 2 + 2 > entries.length)
+			entries = Arrays.copyOf(entries, entries.length * 2);
+		entries[index * 2] = (long) type << 32 | (arg & 0xFFFFFFFFL);
+		entries[index * 2 + 1] = value;
+		size = index + 1; //publishes the entry to the writer thread
+		return index;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int type(int index) {
+		return (int) (entries[index * 2] >>> 32);
+	}
+
+	public int arg(int index) {
+		return (int) entries[index * 2];
+	}
+
+	public long value(int index) {
+		return entries[index * 2 + 1];
+	}
+
+	public String describe(int index) {
+		int type = type(index);
+		if (type == GAME_SIZE)
+			return "new game, " + arg(index) + " x " + (int) (value(index) >>> 32) + " with " + (int) value(index) + " mines";
+		if (type == GAME)
+			return "seed " + value(index) + ((arg(index) & RESUMED) != 0 ? " (resumed)" : "");
+		return name(type) + (arg(index) >= 0 && type != UNDO && type != REDO ? " " + arg(index) : "");
+	}
+
+	//starts writing the journal to path, including everything so far and everything appended from now on
+	public synchronized void writeTo(Path path) throws IOException {
+		if (file != null)
+			throw new IllegalStateException("Already writing to a file");
+		file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		file.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip());
+		writer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "Journal writer");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		writer.scheduleWithFixedDelay(() -> {
+			try {
+				flush();
+			} catch (IOException e) {
+				System.out.println("Could not write journal: " + e.getMessage());
+			}
+		}, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	//writes out every entry that isn't in the file yet
+	private synchronized void flush() throws IOException {
+		int end = size; //read before entries, so the array is at least as new as this
+		long[] from = entries;
+		if (file == null || end == written)
+			return;
+		ByteBuffer buffer = ByteBuffer.allocate((end - written) * ENTRY_SIZE);
+		buffer.asLongBuffer().put(from, written * 2, (end - written) * 2);
+		while (buffer.hasRemaining()) {
+			file.write(buffer);
+		}
+		written = end;
+	}
+
+	public static Journal read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long entryBytes = channel.size() - HEADER_SIZE;
+			if (entryBytes < 0 || entryBytes / ENTRY_SIZE > Integer.MAX_VALUE / 2)
+				throw new IOException(path + " is not a journal");
+			ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE - 8, channel.size()));
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				//keep reading
+			}
+			buffer.flip();
+			if (buffer.getInt() != MAGIC)
+				throw new IOException(path + " is not a journal");
+			if (buffer.getInt() != VERSION)
+				throw new IOException(path + " was written by a different version");
+			Journal journal = new Journal();
+			int count = (int) (entryBytes / ENTRY_SIZE); //a half written entry at the end (say the game crashed) is left out
+			journal.entries = new long[Math.max(2, count * 2)];
+			buffer.asLongBuffer().get(journal.entries, 0, count * 2);
+			journal.size = count;
+			return journal;
+		}
+	}
+
+	//writes out whatever is left and stops writing
+	@Override
+	public void close() throws IOException {
+		if (writer != null) {
+			writer.shutdown();
+			try {
+				writer.awaitTermination(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		synchronized (this) {
+			if (file != null) {
+				flush();
+				file.close();
+				file = null;
+			}
+		}
+	}
+}
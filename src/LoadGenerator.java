@@ -0,0 +1,228 @@
+/**
+ * Description: Load generator for the game server
+ * Opens lots of connections to a GameServer on the loopback interface and has every one of them play random games as fast as the
+ * server answers, keeping its own copy of the board up to date from the deltas it gets back. Each client waits for the reply to
+ * every move before making the next one, so the timings are round trips. At the end it prints how many games and moves were
+ * played, the moves per second and the round trip time percentiles.
+ *
+ * Usage: java LoadGenerator [--port n] [--clients n] [--seconds s] [--server] [config]
+ * where config is anything SimulationRunner accepts (hard by default), and --server starts a GameServer in this JVM on a free port
+ * instead of connecting to one that is already running.
+ */
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadGenerator {
+	private final int port, clients;
+	private final SimulationRunner.Config config;
+	private final long[] latencies = new long[64]; //round trips by power of two nanoseconds, merged from every client at the end
+	private long deadline; //when the clients stop, set before they are let go
+	private final LongAdder games = new LongAdder(), wins = new LongAdder(), moves = new LongAdder(), errors = new LongAdder();
+
+	public LoadGenerator(int port, int clients, SimulationRunner.Config config) {
+		this.port = port;
+		this.clients = clients;
+		this.config = config;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int port = GameServer.DEFAULT_PORT, clients = 1000, seconds = 10;
+		boolean server = false;
+		SimulationRunner.Config config = SimulationRunner.Config.parse("hard");
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--port":
+				port = Integer.parseInt(args[++i]);
+				break;
+			case "--clients":
+				clients = Integer.parseInt(args[++i]);
+				break;
+			case "--seconds":
+				seconds = Integer.parseInt(args[++i]);
+				break;
+			case "--server":
+				server = true;
+				break;
+			default:
+				config = SimulationRunner.Config.parse(args[i]);
+			}
+		}
+		GameServer local = null;
+		if (server) {
+			local = new GameServer(0, 1 << 24);
+			port = local.getPort();
+			GameServer running = local;
+			Thread accept = new Thread(() -> {
+				try {
+					running.run();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}, "Accept");
+			accept.setDaemon(true);
+			accept.start();
+		}
+		try {
+			new LoadGenerator(port, clients, config).run(seconds * 1000L);
+		} finally {
+			if (local != null)
+				local.close();
+		}
+	}
+
+	public void run(long millis) throws InterruptedException {
+		ExecutorService executor = GameServer.newPerTaskExecutor("Client");
+		CountDownLatch connected = new CountDownLatch(clients), go = new CountDownLatch(1), done = new CountDownLatch(clients);
+		for (int c = 0; c < clients; c++) {
+			long seed = Board.deriveSeed(config.cols * 31L + config.rows, c);
+			executor.execute(() -> {
+				Client client = new Client(seed);
+				try {
+					client.play(connected, go);
+				} catch (IOException | InterruptedException e) {
+					errors.increment();
+					if (!client.connected)
+						connected.countDown();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		connected.await(); //everyone starts together once they are all connected, so the ramp up isn't timed
+		long start = System.nanoTime();
+		deadline = start + millis * 1000000;
+		go.countDown();
+		done.await();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		executor.shutdown();
+
+		System.out.println(String.format(Locale.ROOT, "%d clients, %s: %d games (%d won), %d moves in %.1fs = %.0f moves/s, %d failed clients",
+				clients, config.name, games.sum(), wins.sum(), moves.sum(), seconds, moves.sum() / seconds, errors.sum()));
+		System.out.println("round trip: p50 " + percentile(0.5) + ", p99 " + percentile(0.99) + ", p99.9 " + percentile(0.999) + ", max " + percentile(1));
+	}
+
+	//upper bound of the histogram bucket the given fraction of round trips fall under
+	private String percentile(double fraction) {
+		long total = 0, seen = 0;
+		for (long count : latencies) {
+			total += count;
+		}
+		for (int i = 0; i < latencies.length; i++) {
+			seen += latencies[i];
+			if (seen > 0 && seen >= fraction * total)
+				return i >= 20 ? (1L << i) / 1000000 + "ms" : (1L << i) / 1000 + "us";
+		}
+		return "-";
+	}
+
+	//one connection, playing one game after another
+	private class Client {
+		private final SplittableRandom rng;
+		private final long[] histogram = new long[64];
+		private BufferedReader in;
+		private Writer out;
+		private int[] view; //what this client has been told about every cell
+		private boolean connected; //whether this client has counted itself as connected yet
+		private String line; //the last reply, and how far into it parsing got
+		private int pos;
+
+		Client(long seed) {
+			rng = new SplittableRandom(seed);
+		}
+
+		void play(CountDownLatch connected, CountDownLatch go) throws IOException, InterruptedException {
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+				socket.setTcpNoDelay(true);
+				in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+				this.connected = true;
+				connected.countDown();
+				go.await();
+				long gamesPlayed = 0, gamesWon = 0, movesMade = 0;
+				while (System.nanoTime() < deadline) {
+					send("NEW " + config.cols + " " + config.rows + " " + config.mines + " " + rng.nextLong());
+					expect("GAME");
+					view = new int[config.cols * config.rows];
+					Arrays.fill(view, Board.UNOPENED);
+					String status = "PLAYING";
+					while (status.equals("PLAYING") && System.nanoTime() < deadline) {
+						int cell = pick();
+						long sent = System.nanoTime();
+						send("OPEN " + cell % config.cols + " " + cell / config.cols);
+						expect("DELTA");
+						histogram[63 - Long.numberOfLeadingZeros(Math.max(1, System.nanoTime() - sent))]++;
+						movesMade++;
+						status = next();
+						next(); //mines left
+						int n = Integer.parseInt(next());
+						for (int i = 0; i < n; i++) {
+							int x = Integer.parseInt(next()), y = Integer.parseInt(next()), value = Integer.parseInt(next());
+							view[y * config.cols + x] = value;
+						}
+					}
+					if (!status.equals("PLAYING")) {
+						gamesPlayed++;
+						if (status.equals("WON"))
+							gamesWon++;
+					}
+				}
+				send("QUIT");
+				games.add(gamesPlayed);
+				wins.add(gamesWon);
+				moves.add(movesMade);
+				synchronized (latencies) {
+					for (int i = 0; i < histogram.length; i++) {
+						latencies[i] += histogram[i];
+					}
+				}
+			}
+		}
+
+		//a random cell this client hasn't seen opened
+		private int pick() {
+			for (int tries = 0; tries < 32; tries++) {
+				int cell = rng.nextInt(view.length);
+				if (view[cell] == Board.UNOPENED)
+					return cell;
+			}
+			int start = rng.nextInt(view.length);
+			for (int i = 0; i < view.length; i++) {
+				int cell = (start + i) % view.length;
+				if (view[cell] == Board.UNOPENED)
+					return cell;
+			}
+			throw new IllegalStateException("No unopened cells left in a game that isn't over");
+		}
+
+		private void send(String command) throws IOException {
+			out.write(command);
+			out.write('\n');
+			out.flush();
+		}
+
+		//reads the next reply, which has to start with word
+		private void expect(String word) throws IOException {
+			line = in.readLine();
+			if (line == null)
+				throw new EOFException("Server closed the connection");
+			pos = 0;
+			String first = next();
+			if (!first.equals(word))
+				throw new IOException("Expected " + word + " but got: " + line);
+		}
+
+		private String next() {
+			int end = line.indexOf(' ', pos);
+			if (end < 0)
+				end = line.length();
+			String token = line.substring(pos, end);
+			pos = end + 1;
+			return token;
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/**
+ * Description: Instrumentation
+ * Where the game keeps track of where its time goes. Each measured thing goes into a Histogram and, when a flight recording is
+ * running, is also written out as a JFR event (all under the Minesweeper category), so it can be looked at live through JMX (see
+ * MetricsMXBean), in the debug overlay, or afterwards in JDK Mission Control. Run with -XX:StartFlightRecording to record.
+ *
+ * Recording a value is only a nanoTime call and a few atomic increments, and the JFR events cost next to nothing while no recording
+ * is running, so everything stays on all the time instead of hiding behind debug mode. Boards only report here once the game or
+ * the server hands them the boards listener, so simulations and searches that churn through boards don't all share the counters.
+ * Rerolls are the same: the game's BoardPool reports them through its listener, and the game records its own no-guess searches.
+ * The event queue delay is measured by EdtProbe, so nothing in here needs Swing.
+ */
+
+import java.lang.management.ManagementFactory;
+import javax.management.*;
+import jdk.jfr.*;
+
+public class Metrics implements MetricsMXBean {
+	public static final String NAME = "jminesweeper:type=Metrics";
+
+	static final Histogram clickToRender = new Histogram(), generate = new Histogram(), rerolls = new Histogram();
+	static final Histogram cascadeCells = new Histogram(), cascadeTime = new Histogram(), edtDelay = new Histogram();
+
+	private static final Metrics instance = new Metrics();
+	private static boolean registered;
+
+	//records the boards it's set on (see Board.setListener)
+	static final Board.Listener boards = new Board.Listener() {
+		@Override
+		public void generated(int cells, int mines, long nanos) {
+			Metrics.generated(cells, mines, nanos);
+		}
+
+		@Override
+		public void cascaded(int cells, long nanos) {
+			Metrics.cascaded(cells, nanos);
+		}
+
+		@Override
+		public void rerolled(String reason, long count) {
+			Metrics.rerolled(reason, count);
+		}
+	};
+
+	@Name("minesweeper.Click")
+	@Label("Click to Render")
+	@Category("Minesweeper")
+	@StackTrace(false)
+	static class ClickEvent extends Event {
+		@Label("Kind")
+		String kind;
+		@Label("Cell")
+		int cell;
+		@Label("Cells Changed")
+		int changed;
+		@Label("Latency")
+		@Timespan
+		long nanos;
+	}
+
+	@Name("minesweeper.Generate")
+	@Label("Generate Board")
+	@Category("Minesweeper")
+	@StackTrace(false)
+	static class GenerateEvent extends Event {
+		@Label("Cells")
+		int cells;
+		@Label("Mines")
+		int mines;
+		@Label("Time")
+		@Timespan
+		long nanos;
+	}
+
+	@Name("minesweeper.Rerolls")
+	@Label("Boards Rerolled")
+	@Category("Minesweeper")
+	@StackTrace(false)
+	static class RerollEvent extends Event {
+		@Label("Reason")
+		String reason;
+		@Label("Rerolls")
+		long rerolls;
+	}
+
+	@Name("minesweeper.Cascade")
+	@Label("Cascade")
+	@Category("Minesweeper")
+	@StackTrace(false)
+	static class CascadeEvent extends Event {
+		@Label("Cells Opened")
+		int cells;
+		@Label("Time")
+		@Timespan
+		long nanos;
+	}
+
+	@Name("minesweeper.EdtDelay")
+	@Label("Event Queue Delay")
+	@Category("Minesweeper")
+	@StackTrace(false)
+	static class EdtDelayEvent extends Event {
+		@Label("Delay")
+		@Timespan
+		long nanos;
+	}
+
+	private Metrics() {
+	}
+
+	//makes the metrics visible over JMX. only the first call does anything
+	public static synchronized void register() {
+		if (registered)
+			return;
+		registered = true;
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(NAME));
+		} catch (JMException e) {
+			System.out.println("Could not register the metrics with JMX: " + e.getMessage());
+		}
+	}
+
+	//a click that started at start (a nanoTime) has made it onto the screen
+	static void clicked(String kind, int cell, int changed, long start) {
+		long nanos = System.nanoTime() - start;
+		clickToRender.record(nanos);
+		ClickEvent event = new ClickEvent();
+		if (event.shouldCommit()) {
+			event.kind = kind;
+			event.cell = cell;
+			event.changed = changed;
+			event.nanos = nanos;
+			event.commit();
+		}
+	}
+
+	static void generated(int cells, int mines, long nanos) {
+		generate.record(nanos);
+		GenerateEvent event = new GenerateEvent();
+		if (event.shouldCommit()) {
+			event.cells = cells;
+			event.mines = mines;
+			event.nanos = nanos;
+			event.commit();
+		}
+	}
+
+	static void rerolled(String reason, long count) {
+		rerolls.record(count);
+		RerollEvent event = new RerollEvent();
+		if (event.shouldCommit()) {
+			event.reason = reason;
+			event.rerolls = count;
+			event.commit();
+		}
+	}
+
+	static void cascaded(int cells, long nanos) {
+		cascadeCells.record(cells);
+		cascadeTime.record(nanos);
+		CascadeEvent event = new CascadeEvent();
+		if (event.shouldCommit()) {
+			event.cells = cells;
+			event.nanos = nanos;
+			event.commit();
+		}
+	}
+
+	//a task posted to the event queue nanos ago has just run
+	static void edtDelayed(long nanos) {
+		edtDelay.record(nanos);
+		EdtDelayEvent event = new EdtDelayEvent();
+		if (event.shouldCommit()) {
+			event.nanos = nanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public Histogram.Summary getClickToRenderNanos() {
+		return clickToRender.summary();
+	}
+
+	@Override
+	public Histogram.Summary getGenerateNanos() {
+		return generate.summary();
+	}
+
+	@Override
+	public Histogram.Summary getRerolls() {
+		return rerolls.summary();
+	}
+
+	@Override
+	public Histogram.Summary getCascadeCells() {
+		return cascadeCells.summary();
+	}
+
+	@Override
+	public Histogram.Summary getCascadeNanos() {
+		return cascadeTime.summary();
+	}
+
+	@Override
+	public Histogram.Summary getEdtDelayNanos() {
+		return edtDelay.summary();
+	}
+
+	@Override
+	public void reset() {
+		for (Histogram histogram : new Histogram[] {clickToRender, generate, rerolls, cascadeCells, cascadeTime, edtDelay}) {
+			histogram.reset();
+		}
+	}
+}
@@ -0,0 +1,21 @@
+/**
+ * Description: JMX view of the game's metrics
+ * What Metrics shows to JConsole, VisualVM or anything else that speaks JMX, under the name jminesweeper:type=Metrics.
+ * Times are in nanoseconds, sizes in cells.
+ */
+
+public interface MetricsMXBean {
+	Histogram.Summary getClickToRenderNanos(); //from a mouse release to the board having been repainted
+
+	Histogram.Summary getGenerateNanos(); //placing the mines and counting every cell
+
+	Histogram.Summary getRerolls(); //boards thrown away (for being outside a 3BV band or needing a guess) before one was kept
+
+	Histogram.Summary getCascadeCells(); //cells opened by one flood fill
+
+	Histogram.Summary getCascadeNanos();
+
+	Histogram.Summary getEdtDelayNanos(); //how long a task waits in the Swing event queue before it runs
+
+	void reset();
+}
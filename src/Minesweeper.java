@@ -11,28 +11,204 @@
 
 import java.awt.*;
 import java.awt.event.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 
 @SuppressWarnings("serial") //eclipse was bothering me about adding this, so i did
-public class Minesweeper extends JFrame implements MouseListener{
-	private int time = 0, gameSetting, minesLeft, cellsOpened; //time holds the timer for game time, gameSetting holds the setting (size + mines) that the game is being played at, minesLeft is amount of flags user has placed, and cellsOpened is amount of cells that the player has revealed
-	private JButton[] buttons; //This array holds the buttons (each button is a cell)
-	private JPanel gameboardPanel; //This panel holds the actual game
-	private int[] boardState, currentBoardState, mines, checkers; //boardState holds the values of each cell, currentBoardState is what is currently being displayed to the user, and mines holds the indices of where the mines will be placed
+public class Minesweeper extends JFrame implements MouseListener, MouseMotionListener{
+	private int gameSetting; //gameSetting holds the setting (size + mines) that the game is being played at
+	private final GameClock clock = new GameClock(this::titleUpdate); //times the game, and keeps the title showing it
+	private BoardPanel gameboardPanel; //This panel holds the actual game - it paints every cell itself instead of using a button per cell
+	private JScrollPane scrollPane; //the board panel scrolls inside this, so boards far bigger than the screen can still be played
+	private MinimapPanel minimap; //overview of the whole board, only shown when the board doesn't fit on screen (or 'm' is pressed)
+	private IntList changed = new IntList(); //cells changed by the last click, so only those get repainted
+	private Board board; //the actual game - this frame is only a view over it
+	private Solver solver; //keeps track of which cells are certainly safe or mines, for hints and auto play. only made once it's needed (see solver())
+	private ProbabilityEngine probabilities; //works out the heatmap. only made while it's shown, and thrown away whenever the board changes under it
+	private static boolean heatmap = false; //whether the chance of each cell being a mine is shown over the board (toggled with 'b')
+	private static final long HEATMAP_BUDGET = 250; //milliseconds the heatmap gets to work things out exactly before it settles for estimates
+	private static final BoardPool pool = new BoardPool(Metrics.boards); //boards made ahead of time in the background, so 'n' doesn't have to wait
+	private SaveFile saveFile; //the file the current game was saved to or loaded from, if any. the board plays straight out of it
+	private JFileChooser chooser; //remembers the folder between saves and loads
+	private final History history = new History(new Journal(), SwingUtilities::invokeLater); //every move gets journaled, which is also what undo and redo work from. snapshots for undo are copied once the move has been painted
 	private int[] gameParameters = new int[3]; //If user decides to make custom minesweeper game, this array holds length, height and # mines in that order
-	private Color[] colours = {Color.lightGray, Color.gray, Color.blue, Color.green, Color.red, Color.blue, Color.red, Color.cyan, Color.black, Color.darkGray}; //Each number traditionally has a color associated with it - this array makes displaying each number with their color in a loop trivial
-	private boolean dead = false, solved = false, generated = false; //booleans that show whether the user has died, has solved the puzzle, or has clicked on at least one cell respectively
-	private static boolean debugMode = false; //whether or not debug mode is on or not. this was made static to implement launching the jar file with console args, but that didn't work due to time constraints. console outputs and certain hotkeys will only work with debug mode on. Also updates the title with a DEBUG text as well as displaying the index of the cell that the user is currently mousing over
-	private ImageIcon[] icons = new ImageIcon[3]; //holds the image for the mine, the flag, and the crossed out flag
+	private static boolean noGuess = false; //whether new boards should be solvable without guessing (toggled with 'g')
+	private static final long NO_GUESS_BUDGET = 3000; //milliseconds to spend looking for a no-guess board before giving up and playing a normal one
+	private NoGuessGenerator noGuessGenerator = new NoGuessGenerator();
+	private static final ExecutorService noGuessSearch = Executors.newSingleThreadExecutor(r -> { //where the search runs, so the window keeps painting meanwhile
+		Thread thread = new Thread(r, "No-guess search");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private boolean searching = false; //whether a no-guess search for the first click is going on. the board takes no clicks until it's done
+	private static boolean debugMode = false; //whether or not debug mode is on or not. can be switched on from the start with --debug (see Options). console outputs and certain hotkeys will only work with debug mode on. Also updates the title with a DEBUG text as well as displaying the index of the cell that the user is currently mousing over
 	private String debugString = ""; //if debug mode is on then this becomes "DEBUG"
+	private final DebugOverlay debugOverlay = new DebugOverlay(); //shows the hovered cell and live latencies over the board while debug mode is on
+	private long clickStart; //nanoTime of the click that hasn't made it onto the screen yet, or 0
+	private String clickKind; //what that click did, and where
+	private int clickCell;
 	private String[] difficulties = {"Easy", "Medium", "Hard", "Custom"}; //array of strings that displays the difficulty that the user is playing the game at
 	
-	public static void main(String[] args) {
-		Minesweeper minesweeper = new Minesweeper();
+	//what the game was launched with. any of the game options (preset or size) means the game starts straight away, without asking anything
+	static class Options {
+		static final String USAGE = "Usage: java Minesweeper [--preset easy|medium|hard|endless] [--cols n] [--rows n] [--mines n] [--seed s] [--journal file] [--debug] [--headless]";
+		private static final String[] PRESETS = {"easy", "medium", "hard", "custom", "endless"}; //by game setting - 1
+		private static final int[][] PRESET_SIZES = {{9, 9, 12}, {16, 16, 50}, {32, 16, 100}}; //cols, rows and mines of the first three
+		
+		int setting; //game setting (1 to 5, see sizeSet), or 0 if none was given
+		final int[] parameters = new int[3]; //cols, rows and mines, 0 where not given
+		long seed;
+		Path journal; //where to write the journal, if anywhere
+		boolean seeded, debug, headless; //seeded is whether there was a --seed
+		
+		static Options parse(String[] args) {
+			Options options = new Options();
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--preset":
+					options.setting = Arrays.asList(PRESETS).indexOf(value(args, ++i).toLowerCase(Locale.ROOT)) + 1;
+					if (options.setting == 0 || options.setting == 4)
+						throw new IllegalArgumentException("Unknown preset: " + args[i] + "\n" + USAGE);
+					break;
+				case "--cols":
+					options.parameters[0] = (int) number(args, ++i, Integer.MAX_VALUE);
+					break;
+				case "--rows":
+					options.parameters[1] = (int) number(args, ++i, Integer.MAX_VALUE);
+					break;
+				case "--mines":
+					options.parameters[2] = (int) number(args, ++i, Integer.MAX_VALUE);
+					break;
+				case "--seed":
+					options.seed = number(args, ++i, Long.MAX_VALUE);
+					options.seeded = true;
+					break;
+				case "--journal":
+					options.journal = Paths.get(value(args, ++i));
+					break;
+				case "--debug":
+					options.debug = true;
+					break;
+				case "--headless":
+					options.headless = true;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i] + "\n" + USAGE);
+				}
+			}
+			options.resolve();
+			return options;
+		}
+		
+		private static String value(String[] args, int i) {
+			if (i >= args.length)
+				throw new IllegalArgumentException(args[i - 1] + " needs a value\n" + USAGE);
+			return args[i];
+		}
+		
+		private static long number(String[] args, int i, long max) {
+			try {
+				long number = Long.parseLong(value(args, i));
+				if (number <= max)
+					return number;
+			} catch (NumberFormatException e) {
+				//same message as too big
+			}
+			throw new IllegalArgumentException(args[i - 1] + " needs a number up to " + max + ", not " + args[i]);
+		}
+		
+		//fills in whatever the preset leaves out, and checks that the result is a board that can be played. a size on its own makes a custom game
+		void resolve() {
+			boolean sized = parameters[0] != 0 || parameters[1] != 0 || parameters[2] != 0;
+			if (setting == 5) {
+				if (headless)
+					throw new IllegalArgumentException("Endless mode needs a display, so it can't be played headless");
+				if (sized)
+					throw new IllegalArgumentException("Endless mode has no size");
+				return;
+			}
+			if (!sized)
+				return; //a preset (or nothing at all, and the game asks)
+			for (int i = 0; i < parameters.length; i++) {
+				if (parameters[i] == 0) {
+					if (setting == 0)
+						throw new IllegalArgumentException("A custom game needs --cols, --rows and --mines (or a --preset to take the rest from)\n" + USAGE);
+					parameters[i] = PRESET_SIZES[setting - 1][i];
+				}
+			}
+			if (parameters[0] <= 0 || parameters[1] <= 0 || (long) parameters[0] * parameters[1] > Board.MAX_CELLS)
+				throw new IllegalArgumentException("Board has to be between 1 and " + Board.MAX_CELLS + " cells");
+			if (parameters[2] <= 0 || parameters[2] > Board.maxMines(parameters[0], parameters[1]))
+				throw new IllegalArgumentException("Invalid amount of mines: " + parameters[2]);
+			setting = 4;
+		}
+		
+		boolean hasGame() {
+			return setting != 0;
+		}
+		
+		//cols, rows and mines of the game to play (or of easy, if none was given)
+		int[] size() {
+			return setting == 4 ? parameters.clone() : PRESET_SIZES[Math.max(0, setting - 1)].clone();
+		}
+	}
+	
+	public static void main(String[] args) throws IOException {
+		long launched = System.nanoTime();
+		Options options;
+		try {
+			options = Options.parse(args);
+			if (!options.headless && GraphicsEnvironment.isHeadless()) {
+				System.err.println("No display, so playing headless (see --headless)");
+				options.headless = true;
+				options.resolve(); //again, since not everything can be played headless
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+			return;
+		}
+		debugMode = options.debug;
+		if (options.headless) {
+			playHeadless(options);
+			return;
+		}
+		Icons.preload(); //decoded in the background while the window is being built
+		
+		//start making boards for the preset difficulties while the rules are being read. boards with a 3BV in the outer few percent either way (too trivial or too grindy for the preset) are rolled again
+		pool.register(9, 9, 12, 10, 30);
+		pool.register(16, 16, 50, 60, 115);
+		pool.register(32, 16, 100, 135, 215);
+		SwingUtilities.invokeLater(() -> start(options, launched)); //Swing is only ever touched from the EDT
+	}
+	
+	//plays over stdin and stdout with the GameServer protocol, starting with the game from the command line if there is one. this is what scripts and containers with no display get
+	private static void playHeadless(Options options) throws IOException {
+		InputStream in = System.in;
+		if (options.hasGame()) {
+			int[] size = options.size();
+			String first = "NEW " + size[0] + " " + size[1] + " " + size[2] + (options.seeded ? " " + options.seed : "") + "\n";
+			in = new SequenceInputStream(new ByteArrayInputStream(first.getBytes(StandardCharsets.US_ASCII)), in);
+		}
+		GameServer.playLocal(in, System.out, Board.MAX_CELLS);
+	}
+	
+	//builds the window on the EDT. the board is up and playable before any dialog gets shown
+	private static void start(Options options, long launched) {
+		if (options.setting == 5) {
+			new EndlessMinesweeper(EndlessMinesweeper.DEFAULT_DENSITY);
+			return;
+		}
+		Minesweeper minesweeper = new Minesweeper(options);
 		
 		//Add our keyboard shortcuts here
 		minesweeper.addKeyListener(new KeyListener() {
@@ -66,6 +242,69 @@ public class Minesweeper extends JFrame implements MouseListener{
 						System.out.print("c");
 					minesweeper.sizeSet(); //Pressing c allows changing parameters
 				}
+				if (e.getKeyCode() == KeyEvent.VK_EQUALS || e.getKeyCode() == KeyEvent.VK_ADD || e.getKeyCode() == KeyEvent.VK_MINUS || e.getKeyCode() == KeyEvent.VK_SUBTRACT) {
+					if (debugMode)
+						System.out.print(e.getKeyChar());
+					minesweeper.zoom(e.getKeyCode() == KeyEvent.VK_EQUALS || e.getKeyCode() == KeyEvent.VK_ADD ? 1 : -1); //Pressing + or - zooms in and out
+				}
+				if (e.getKeyCode() == KeyEvent.VK_M) {
+					if (debugMode)
+						System.out.print("m");
+					minesweeper.minimap.setVisible(!minesweeper.minimap.isVisible()); //Pressing m shows or hides the minimap
+					minesweeper.validate();
+				}
+				if (e.getKeyCode() == KeyEvent.VK_G) {
+					if (debugMode)
+						System.out.print("g");
+					noGuess = !noGuess; //Pressing g toggles no-guess boards, starting from the next game
+					minesweeper.titleUpdate();
+				}
+				if (e.getKeyCode() == KeyEvent.VK_H) {
+					if (debugMode)
+						System.out.print("h");
+					minesweeper.hint(); //Pressing h highlights a cell that is certainly safe
+				}
+				if (e.getKeyCode() == KeyEvent.VK_A) {
+					if (debugMode)
+						System.out.print("a");
+					minesweeper.autoPlay(); //Pressing a opens safe cells until a guess is needed
+				}
+				if (e.getKeyCode() == KeyEvent.VK_F) {
+					if (debugMode)
+						System.out.print("f");
+					minesweeper.flagMines(); //Pressing f flags every cell that is certainly a mine
+				}
+				if (e.getKeyCode() == KeyEvent.VK_B) {
+					if (debugMode)
+						System.out.print("b");
+					heatmap = !heatmap; //Pressing b shows or hides how likely each cell is to be a mine
+					minesweeper.refreshHeatmap();
+				}
+				if (e.getKeyCode() == KeyEvent.VK_W) {
+					if (debugMode)
+						System.out.print("w");
+					minesweeper.save(); //Pressing w saves the game
+				}
+				if (e.getKeyCode() == KeyEvent.VK_O) {
+					if (debugMode)
+						System.out.print("o");
+					minesweeper.load(); //Pressing o opens a saved game
+				}
+				if (e.getKeyCode() == KeyEvent.VK_Z) {
+					if (debugMode)
+						System.out.print("z");
+					minesweeper.undo(); //Pressing z undoes the last move
+				}
+				if (e.getKeyCode() == KeyEvent.VK_Y) {
+					if (debugMode)
+						System.out.print("y");
+					minesweeper.redo(); //Pressing y redoes it
+				}
+				if (e.getKeyCode() == KeyEvent.VK_P) {
+					if (debugMode)
+						System.out.print("p");
+					minesweeper.togglePause(); //Pressing p pauses the game, hiding the board until it's pressed again
+				}
 				if (e.getKeyCode() == KeyEvent.VK_D) {
 					System.out.print("Debug mode toggled o");
 					debugMode = !debugMode; //And pressing d toggles debug mode
@@ -73,7 +312,8 @@ public class Minesweeper extends JFrame implements MouseListener{
 						System.out.print("n");
 					else
 						System.out.print("ff");
-					minesweeper.titleUpdate(0);
+					minesweeper.debugOverlay.setVisible(debugMode);
+					minesweeper.titleUpdate();
 				}
 		    	System.out.println();
 		    }
@@ -81,430 +321,533 @@ public class Minesweeper extends JFrame implements MouseListener{
 		    @Override
 		    public void keyReleased(KeyEvent e) {
 		    }});
+		
+		if (debugMode) //queued behind the first paint, so this is when the first click can land
+			SwingUtilities.invokeLater(() -> System.out.println("Ready to play " + (System.nanoTime() - launched) / 1000000 + "ms after launch"));
+		if (!options.hasGame())
+			SwingUtilities.invokeLater(minesweeper::welcome);
 	}
 	
-	public Minesweeper()
+	public Minesweeper(Options options)
 	{
 		super("Minesweeper");
-		try { //This is where we initialize the images
-			icons[0] = new ImageIcon(ImageIO.read(getClass().getResource("mine-sweeper.png")));
-			icons[1] = new ImageIcon(ImageIO.read(getClass().getResource("flag.png")));
-			icons[2] = new ImageIcon(ImageIO.read(getClass().getResource("flagx.png")));
-		} catch (Exception e) {
-			System.out.println("Pictures not found!");
-			System.exit(1);
-		}
-		
-		
 		setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		setGlassPane(debugOverlay);
+		debugOverlay.setVisible(debugMode);
+		ForkJoinPool.commonPool().execute(Metrics::register); //so the numbers can be watched over JMX. starting up JMX takes a while, so it doesn't hold up the window
+		EdtProbe.start();
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowIconified(WindowEvent e) {
+				clock.pause(); //no playing the clock while nobody is looking
+			}
+			
+			@Override
+			public void windowDeiconified(WindowEvent e) {
+				clock.resume();
+			}
+			
+			@Override
+			public void windowClosing(WindowEvent e) {
+				closeSave(); //so the save matches the game it's closed on
+				try {
+					history.getJournal().close();
+				} catch (IOException ex) {
+					System.out.println("Could not finish the journal: " + ex.getMessage());
+				}
+			}
+		});
+		
+		//the journal only goes to a file when asked for, where it can be picked up to replay the games (see ReplayViewer)
+		if (options.journal != null) {
+			try {
+				history.getJournal().writeTo(options.journal);
+			} catch (IOException e) {
+				System.out.println("Could not write the journal to " + options.journal + ": " + e.getMessage());
+			}
+		}
 		
+		//start on the game from the command line, or on easy until the player picks something (see welcome)
+		gameSetting = Math.max(1, options.setting);
+		gameParameters = options.size();
+		startGame(options.seeded ? new Board(gameParameters[0], gameParameters[1], gameParameters[2], options.seed) : pool.take(gameParameters[0], gameParameters[1], gameParameters[2]));
+	}
+	
+	public void welcome() { //explains the game and asks what to play. only shown when the command line didn't already say
 		//Display instructions to user
-		JOptionPane.showMessageDialog(null, "This is a run of the mill minesweeper game. \nStandard controls apply: left click to clear a cell, and right click to flag it as a mine. \nYou may also left click a cleared cell with a number in it to clear all cells around it, if that cell has the right amount of flags around it. \nPress 'n' to generate new game, or press 'c' to change game parameters", "Rules", 1);
+		JOptionPane.showMessageDialog(null, "This is a run of the mill minesweeper game. \nStandard controls apply: left click to clear a cell, and right click to flag it as a mine. \nYou may also left click a cleared cell with a number in it to clear all cells around it, if that cell has the right amount of flags around it. \nPress 'n' to generate new game, or press 'c' to change game parameters. \nBig boards can be scrolled around, zoomed with ctrl + mouse wheel (or '+' and '-'), and navigated with the minimap ('m' shows or hides it). \nStuck? Press 'h' for a hint, 'f' to flag every certain mine, or 'a' to open every cell that can be worked out. \nHave to guess? 'b' shows how likely every cell is to be a mine, from green (safe) to red. \nPress 'g' to switch to boards that never need a guess. \nPress 'w' to save the game and 'o' to open a saved one - once saved, the game keeps being saved as you play. \nMade a mistake? 'z' undoes a move and 'y' redoes it. \nNeed a break? 'p' pauses the game and hides the board", "Rules", 1);
 		
 		//Set game parameters and creates game
 		sizeSet();
-		
-		//Some crazy stuff I have to add to implement a timer
-		Runnable timerUpdate = new Runnable() {public void run() {titleUpdate(1);}};
-		ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-		executor.scheduleAtFixedRate(timerUpdate, 1, 1, TimeUnit.SECONDS);
-		
 	}
 	
-	public void sizeSet() {
-		try {
-			remove(gameboardPanel); //If sizeSet is called by pressing 'c', this ensures that the previous game is destroyed
-		} catch (Exception e) {
-			
-		}
-		
-		gameboardPanel = new JPanel();
-		setVisible(false);
-		
+	public void sizeSet() { //asks for a new difficulty and starts a game at it. backing out of any of the prompts carries on with the current game
 		//prompts for custom settings (for looping)
 		String[] prompts = {"Please enter # of columns minesweeper game", "Please enter # of rows of minesweeper game", "Please enter amount of mines"};
 		
 		//gets user input for game parameters settings (basic error checking code)
+		int setting;
 		while (true) {
-			String input = JOptionPane.showInputDialog("Enter '1' for easy, '2' for medium, '3' for hard, and '4' for custom minesweeper:");
+			String input = JOptionPane.showInputDialog("Enter '1' for easy, '2' for medium, '3' for hard, '4' for custom, and '5' for endless minesweeper:");
+			if (input == null || input.isEmpty())
+				return;
 			try {
-				gameSetting = Integer.parseInt(input);
-				if (gameSetting >= 1 && gameSetting <= 4) {
+				setting = Integer.parseInt(input);
+				if (setting >= 1 && setting <= 5) {
 					break;
 				}
-			} catch (Exception e) {
-				if (input.isEmpty()) {
-					System.exit(0);
-				}
+			} catch (NumberFormatException e) {
+				//asks again
 			}
 		}
+		int[] parameters = new int[3];
 		
 		//This sets the appropriate game settings to match the difficulty inputed by the user
-		switch (gameSetting) {
+		switch (setting) {
 		case 1:
-			gameParameters[0] = 9;
-			gameParameters[1] = 9;
-			gameParameters[2] = 12;
+			parameters[0] = 9;
+			parameters[1] = 9;
+			parameters[2] = 12;
 			break;
 		case 2:
-			gameParameters[0] = 16;
-			gameParameters[1] = 16;
-			gameParameters[2] = 50;
+			parameters[0] = 16;
+			parameters[1] = 16;
+			parameters[2] = 50;
 			break;
 		case 3:
-			gameParameters[0] = 32;
-			gameParameters[1] = 16;
-			gameParameters[2] = 100;
+			parameters[0] = 32;
+			parameters[1] = 16;
+			parameters[2] = 100;
 			break;
 		case 4:
 			//case 4 is custom minesweeper, so we have a loop here to allow the user to input parameters (with error checking, ofc)
-			for (int i = 0; i < gameParameters.length; i++) {
+			for (int i = 0; i < parameters.length; i++) {
 				while (true) {
 					String input = JOptionPane.showInputDialog(prompts[i]);
+					if (input == null || input.isEmpty())
+						return;
 					try {
-						gameParameters[i] = Integer.parseInt(input);
-						if ((gameParameters[i] > 0 && gameParameters[i] <= 40 && (i == 0 || i == 1)) || (i == 2 && gameParameters[i] > 0 && gameParameters[i] < gameParameters[0]*gameParameters[1])) {
+						parameters[i] = Integer.parseInt(input);
+						if ((parameters[i] > 0 && (i == 0 || (i == 1 && (long) parameters[0]*parameters[1] <= Board.MAX_CELLS))) || (i == 2 && parameters[i] > 0 && parameters[i] <= Board.maxMines(parameters[0], parameters[1]))) {
 							break;
 						}
-					} catch (Exception e) {
-						if (input.isEmpty()) {
-							System.exit(0);
-						}
+					} catch (NumberFormatException e) {
+						//asks again
 					}
 				}
 			}
+			break;
+		case 5:
+			//case 5 is endless mode, which has no fixed size and gets a window of its own
+			closeSave();
+			new EndlessMinesweeper(EndlessMinesweeper.DEFAULT_DENSITY);
+			dispose();
+			return;
 		}
+		gameSetting = setting;
+		gameParameters = parameters;
 		
 		if (debugMode)
 			System.out.println(gameParameters[0] + " x " + gameParameters[1]);
 		
-		//basic init
-		setSize(gameParameters[0]*50, gameParameters[1]*50);
-		buttons = new JButton[gameParameters[0]*gameParameters[1]];
-		boardState = new int[gameParameters[0]*gameParameters[1]];
-		
-		//the cells on display are all unopened, so they are filled with -1. Opened empty cells are represented with 0, each number is represented by themselves, mines are 9, flags are 10, and x flags are 11. This is also true for boardState
-		currentBoardState = new int[gameParameters[0]*gameParameters[1]];
-		Arrays.fill(currentBoardState, -1);
-		
-		//initalizes the mines array to the size of the amount of mines specified earlier
-		mines = new int[gameParameters[2]];
-		
-		//we can't use curly braces to initialize an array after declaration, so this is a workaround instead. What exactly is checkers?
-		int[] temp = {-gameParameters[0]-1, -gameParameters[0], -gameParameters[0]+1, -1, 1, gameParameters[0]-1, gameParameters[0], gameParameters[0]+1};
-		checkers = temp; //In minesweeper, there are many times where you check all cells around a cell you are currently on. This array is simple all modifiers to the original cell to access the adjacent cells, and it makes it really easy to loop things
-		
-		//resetting all the relevant variables
-		time = 0;
-		minesLeft = gameParameters[2];
-		dead = false;
-		solved = false;
-		cellsOpened = 0;
-		generated = false; 
-		
-		//basic init
-		gameboardPanel.setLayout(new GridLayout(gameParameters[1],gameParameters[0],1,1));
-		gameboardPanel.setBackground(Color.black);
-		add(gameboardPanel);
-		setFocusable(true);
-		
-		//sets the jpanel up with buttons
-		initPanel();
+		startGame(pool.take(gameParameters[0], gameParameters[1], gameParameters[2]));
+	}
+	
+	private void startGame(Board next) { //puts a new game on screen
+		//the board starts out ungenerated - the mines are only placed on the first click. Opened empty cells are displayed as 0, each number is represented by themselves, mines are 9, flags are 10, and x flags are 11 (see Board.view)
+		closeSave();
+		board = next;
+		board.setListener(Metrics.boards);
+		history.startGame(board);
+		solver = null;
+		clock.reset(0);
+		layoutBoard();
 		
 		setVisible(true);     //Turn on JFrame
 		
 	}
 	
-	public boolean wrapCheck(int check, int iter) { //because of the fact that the minesweeper board is backed by a 1d array, checking a cell +- 1 can lead to checking the cell on the opposite side of the board due to looparound. this bit of code prevents that
-		return check%gameParameters[0] == 0 && (iter == 0 || iter == 3 || iter == 5) || (check%gameParameters[0] == gameParameters[0] - 1 && (iter == 2 || iter == 4 || iter == 7));
-		//Everytime there is a possible wrap around bug, it is because we are looping through cells and the cell checkers. iter represents the current index of checkers, and check represents the cell being checked. should this return true, than all instances where this is called will have something akin to iter++
-	}
-	
-	public void generateGame(int exclude) { //this method is called on the users first click of the game - it ensures that they don't die on their first click and have a reasonable amount of space to work with from the beginning rather than being stuck with a 1x1 area
-		if (debugMode)
-			System.out.println(mines.length);
-		
-		//We fill our mines array with random numbers - each number is an index on boardState
-		Random rng = new Random();
-		for (int i = 0; i < gameParameters[2]; i++) {
-			mines[i] = rng.nextInt(gameParameters[0]*gameParameters[1]);
-		}
-		
-		//Sort out the array for neatness
-		Arrays.sort(mines);
-		if (debugMode)
-			System.out.println(Arrays.toString(mines));
-		
-		//our randomly generated set of mines may be unsafe for multiple reasons - either there are duplicates, or the spot that the user clicks will not be empty
-		boolean unsafe = false;
-		
-		//this loop checks for unsafeness and redistributes mines until it is safe
-		for (int i = 1; i < gameParameters[2]; i++) {
-			unsafe = false;
-			for (int j = 0; j < checkers.length; j++) {
-				try {
-					if (wrapCheck(mines[i], j)) {
-						j++; //I know it's not good form to touch for loop iterators in the loop, but it's a necessary evil here to avoid wrap around
-					}
-					unsafe = unsafe || mines[i] + checkers[j] == exclude || mines[i] == mines[i-1] || mines[i] == exclude;
-					if (unsafe)
-						break;
-				} catch (Exception e) {
-					
-				}
-			}
-			if (unsafe) {
-				mines[i] = rng.nextInt(gameParameters[0]*gameParameters[1]); //if a mine makes the board unsafe, then it is rerolled
-				Arrays.sort(mines); //and the array is sorted again
-				if (debugMode)
-					System.out.println(Arrays.toString(mines));
-				i = 1; //and we do the whole shebang from the beginning. and yes, i am setting i = 1. deal with it
-			}
+	//puts the current board into the window, sized to fit the screen
+	private void layoutBoard() {
+		//basic init. the board panel is only created once - if sizeSet is called by pressing 'c', the new board just replaces the old one
+		if (gameboardPanel == null) {
+			gameboardPanel = new BoardPanel(board);
+			gameboardPanel.addMouseListener(this);
+			gameboardPanel.addMouseMotionListener(this);
+			scrollPane = new JScrollPane(gameboardPanel);
+			scrollPane.setFocusable(false);
+			scrollPane.getViewport().setBackground(Color.black);
+			minimap = new MinimapPanel(gameboardPanel, scrollPane.getViewport());
+			JPanel minimapHolder = new JPanel(new BorderLayout()); //keeps the minimap at its own size in the top corner
+			minimapHolder.add(minimap, BorderLayout.NORTH);
+			add(scrollPane, BorderLayout.CENTER);
+			add(minimapHolder, BorderLayout.EAST);
 		}
+		setFocusable(true);
 		
-		//here we will the board with the mines in their appropriate spots and update surroundging cells with the appropriate number
-		for (int i = 0; i < gameParameters[2]; i++) {
-			boardState[mines[i]] = 9; //sets the mine spots to mines on the actual board - If an error traces to here than thats just because Random nextInt is unclear about its definition of exclusive bound
-			for (int j = 0; j < checkers.length; j++) {
-				try {
-					if (wrapCheck(mines[i], j)) {
-						j++; //wrapcheck again
-					}
-					if (boardState[mines[i]+checkers[j]] != 9) //updates cells adjacent to mines to reflect their existence, presuming that those cells aren't mines themselves
-						boardState[mines[i]+checkers[j]]++; 
-				} catch (Exception e) {
-					if (debugMode)
-						System.out.println("Caught: tried to access cell out of bounds");
-				}
-			}
-		}
+		//sets the panel up with the new board
+		initPanel();
 		
-		generated = true; //the game is now generated, so interaction is allowed
+		//the cells used to be 50 pixels each. they still are if the board fits on screen, otherwise we zoom out until it does (or as far as we can) and scroll the rest
+		Rectangle screen = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+		gameboardPanel.fitZoom(screen.width * 9 / 10, screen.height * 9 / 10);
+		Dimension boardSize = gameboardPanel.getPreferredSize();
+		boolean fits = boardSize.width <= screen.width * 9 / 10 && boardSize.height <= screen.height * 9 / 10;
+		minimap.setVisible(!fits);
+		scrollPane.setPreferredSize(new Dimension(Math.min(boardSize.width + 3, screen.width * 9 / 10), Math.min(boardSize.height + 3, screen.height * 9 / 10)));
+		scrollPane.getViewport().setViewPosition(new Point(0, 0));
+		pack();
 	}
 	
-	//Same thing from SliderV2 more or less - this runs every second to update the timer, but also contains useful information such as hotkeys, as well as the current state of the game (e.g. whether the game is dead/solved, or whether or not the user is in debug mode)
-	public void titleUpdate(int timeUpdate) {
+	//Same thing from SliderV2 more or less - the game clock runs this whenever the time shown needs to change, but it also contains useful information such as hotkeys, as well as the current state of the game (e.g. whether the game is dead/solved, or whether or not the user is in debug mode)
+	public void titleUpdate() {
 		if (debugMode) {
 			debugString = "DEBUG - ";
 		} else {
 			debugString = "";
 		}
-		if (dead) {
-			setTitle(debugString + "DEAD - Press 'n' to create new game, or 'c' to change parameters - Mines Left: " + minesLeft + " - Time: " + time + " seconds");
-		} else if (solved) {
-			setTitle(debugString + "SOLVED - Press 'n' to create new game, or 'c' to change parameters - Mines Left: " + minesLeft + " - Time: " + time + " seconds");
+		String time = String.format("%.1f", clock.getSeconds());
+		if (board.isDead()) {
+			setTitle(debugString + "DEAD - Press 'n' to create new game, or 'c' to change parameters - Mines Left: " + board.getMinesLeft() + " - Time: " + time + " seconds");
+		} else if (board.isSolved()) {
+			setTitle(debugString + "SOLVED - Press 'n' to create new game, or 'c' to change parameters - Mines Left: " + board.getMinesLeft() + " - Time: " + time + " seconds");
+		} else if (clock.isPaused()) {
+			setTitle(debugString + "PAUSED - Press 'p' to carry on - Mines Left: " + board.getMinesLeft() + " - Time: " + time + " seconds");
 		} else {
-			time += timeUpdate;
-			setTitle(debugString + "Minesweeper - Mines Left: " + minesLeft + " - Time: " + time + " seconds" + " - Press 'n' to create new game, or 'c' to change parameters");
+			setTitle(debugString + (noGuess ? "NO-GUESS - " : "") + "Minesweeper - Mines Left: " + board.getMinesLeft() + " - Time: " + time + " seconds" + " - Press 'n' to create new game, or 'c' to change parameters");
 		}
 	}
 	
-	//initalizies the panel by placing all the buttons onto them and putting the appropriate settings
+	//points the panel at the current board and paints it from scratch
 	public void initPanel() {
-		gameboardPanel.removeAll(); //this is for when initPanel is called from pressing 'c'
-		
-		//these comments are inherited from SliderPractice lol
-		for (int i = 0; i < buttons.length; i++)  //From i is 0 to 15
-		{	
-			buttons[i] = new JButton();  //Constructor sets text on new buttons
-			buttons[i].setFocusable(false);
-			buttons[i].setFont(new Font("Courier prime", Font.PLAIN, 18));
-			buttons[i].setBackground(Color.lightGray);
-			buttons[i].addMouseListener(this);   //Set up ActionListener on each button
-			gameboardPanel.add(buttons[i]);    //Add buttons to the grid layout of 
-											   //gameboardPanel
-		}
-		
-		//This seems pointless but is required for this entire method to work
-		buttons[0].setVisible(false);
-		buttons[0].setVisible(true);
+		gameboardPanel.setBoard(board); //this is for when initPanel is called from pressing 'c'
+		gameboardPanel.setVisible(true); //in case the last game was left paused
+		refreshHeatmap();
 		
 		//start with the title initialized right off the bat
-		titleUpdate(0);
+		titleUpdate();
 	}
 	
 	public void updatePanel() {
-		//check if win
-		if (cellsOpened >= gameParameters[0]*gameParameters[1]-gameParameters[2]) { //the win condition is if every non mine cell has been uncovered. that means it is possible to do a no flags run, since the only requirement is to uncover every cell that isnt a mine
-			solved = true; //set game to solved and disables interaction
-			minesLeft = 0;
-			
-			//auto flags all remaining mines
-			for (int i = 0; i < gameParameters[2]; i++) {
-				currentBoardState[mines[i]] = 10;
-			} 
-		}
-		
-		//similar to initpanel, though this code is written with the mindset of updating rather than initiazling
-		for (int i = 0; i < buttons.length; i++)  //From i is 0 to 15
-		{	
-			buttons[i].setIcon(null);
-			buttons[i].setText("" + currentBoardState[i]);  //Constructor sets text on new buttons
-			buttons[i].setBackground(Color.gray);
-			if (currentBoardState[i] < 0 || currentBoardState[i] > 9)
-				buttons[i].setBackground(Color.lightGray);
-			if (currentBoardState[i] >= 9) {
-				buttons[i].setIcon(icons[currentBoardState[i]-9]);
-				buttons[i].setText(null);
-			}
-			try {
-				buttons[i].setForeground(colours[currentBoardState[i]+1]);   //Text colour
-			} catch (Exception e) {
-				if (debugMode)
-					System.out.println("Caught: no foreground colour found");
-			}
+		//the board itself takes care of checking for a win and auto flagging the remaining mines, so all we do here is display it
+		clock.follow(board); //stops the clock on the move that won or lost, before any popup
+		refreshHeatmap();
+		gameboardPanel.repaint();
+		minimap.repaint();
+		clickShown(); //before the popup, which would otherwise count as part of the click
+		
+		if (board.isSolved()) { //displays win popup if solved, along with how efficiently the board was cleared
+			int bv = BoardAnalyzer.analyze(board).threeBV;
+			double seconds = clock.getSeconds();
+			JOptionPane.showMessageDialog(null, "You Won! \nDifficulty: " + difficulties[gameSetting - 1] + "\nTime: " + String.format("%.3f", seconds) + "s \n3BV: " + bv + " (" + String.format("%.2f", bv / Math.max(0.001, seconds)) + " 3BV/s) \nPress 'n' to play again, or press 'c' to change game settings", "Great!", 1);
 		}
 		
-		//This seems pointless but is required for this entire method to work
-		buttons[0].setVisible(false);
-		buttons[0].setVisible(true);
-		
-		
-		
-		if (solved) //displays win popup if solved
-			JOptionPane.showMessageDialog(null, "You Won! \nDifficulty: " + difficulties[gameSetting - 1] + "\nTime: " + time + "s \nPress 'n' to play again, or press 'c' to change game settings", "Great!", 1);
-		
 		//updates title
-		titleUpdate(0);
+		titleUpdate();
 	}
 	
-	public void showAll() { //debug method - reveals all cells
-		for (int i = 0; i < boardState.length; i++) {
-			currentBoardState[i] = boardState[i];
+	public void updatePanel(IntList changed) { //same as updatePanel, but only repaints the cells that changed. once the game is over every mine is shown, so the whole board is repainted
+		if (board.isOver()) {
+			updatePanel();
+		} else {
+			gameboardPanel.repaintCells(changed);
+			minimap.repaint();
+			clickShown();
+			titleUpdate();
 		}
+	}
+	
+	//the repaints for the last click have been asked for. they get painted ahead of anything queued after them, so once this runs the click is on screen
+	private void clickShown() {
+		if (clickStart == 0)
+			return;
+		long start = clickStart;
+		String kind = clickKind;
+		int cell = clickCell, cells = changed.size();
+		clickStart = 0;
+		SwingUtilities.invokeLater(() -> Metrics.clicked(kind, cell, cells, start));
+	}
+	
+	public void zoom(int steps) { //zooms in or out around the middle of what is currently visible
+		Rectangle visible = scrollPane.getViewport().getViewRect();
+		gameboardPanel.zoom(steps, new Point(visible.x + visible.width / 2, visible.y + visible.height / 2));
+	}
+	
+	public void showAll() { //debug method - reveals all cells
+		board.revealAll();
 		updatePanel();
 	}
 	
 	public void resetState() { //debug method - resets all cells to unopened state without generating new puzzle
-		Arrays.fill(currentBoardState, -1);
-		dead = false;
-		solved = false;
-		cellsOpened = 0;
-		time = 0;
+		board.reset();
+		if (solver != null)
+			solver.rescan();
+		probabilities = null;
+		clock.reset(0);
 		updatePanel();
 	}
 	
-	public void newGame() { //generates new puzzle with same parameters
-		Arrays.fill(currentBoardState, -1);
-		Arrays.fill(boardState, 0);
-		dead = false;
-		solved = false;
-		cellsOpened = 0;
-		time = 0;
-		generated = false;
-		initPanel(); //normally updatePanel would be used for speed, but it just so happens that the slowness of initPanel produces a nice effect here
+	public void newGame() { //swaps in a new puzzle with the same parameters, straight from the pool if one is ready
+		closeSave();
+		board = pool.take(board.getCols(), board.getRows(), board.getMineCount());
+		board.setListener(Metrics.boards);
+		history.startGame(board);
+		solver = null;
+		clock.reset(0);
+		initPanel(); //initPanel used to rebuild every button here, but now it only points the panel at the new board
+	}
+
+	private Path choose(boolean save) { //asks for a file to save to or load from, or null if the user backs out
+		if (chooser == null)
+			chooser = new JFileChooser();
+		boolean paused = clock.isPaused();
+		clock.pause(); //picking a file isn't playing
+		int option = save ? chooser.showSaveDialog(this) : chooser.showOpenDialog(this);
+		if (!paused)
+			clock.resume();
+		return option == JFileChooser.APPROVE_OPTION ? chooser.getSelectedFile().toPath() : null;
 	}
 	
-	public void open(int index) { //now we're getting to the fun parts
-		if (debugMode)
-			System.out.println("Cell: " + index + " Row: " + index/gameParameters[0] + " Column: " + index%gameParameters[0] + " Contents: " + boardState[index]);
-		if (currentBoardState[index] < 0) { //if the cell clicked on is unopened, then we open it
-			currentBoardState[index] = boardState[index];
-			cellsOpened++;
-		}
-		if (boardState[index] == 0) { //if what we open is an empty cell, 
-			for (int i = 0; i < checkers.length; i++) { //then we open all cells around it too
-				if (wrapCheck(index, i)) {
-					i++;
-				}
-				try {
-					if (currentBoardState[index+checkers[i]] < 0)
-						open(index+checkers[i]);
-				} catch (Exception e) {
-					if (debugMode)
-						System.out.println("Caught: tried to open cell outside of borders");
-				}
+	public void save() { //the first save writes the whole game to a file, which it is played out of from then on. after that, saving only has to write what changed
+		try {
+			if (saveFile == null) {
+				Path path = choose(true);
+				if (path == null)
+					return;
+				saveFile = SaveFile.create(path, board, clock.getMillis(), gameSetting);
+				board = saveFile.getBoard();
+				board.setListener(Metrics.boards);
+				history.setBoard(board); //same game, it just carries on in the file
+				solver = null;
+				gameboardPanel.setBoard(board);
+			} else {
+				saveFile.checkpoint(clock.getMillis(), gameSetting);
 			}
+			if (debugMode)
+				System.out.println("Saved to " + saveFile.getPath());
+		} catch (IOException e) {
+			JOptionPane.showMessageDialog(null, "Couldn't save the game: " + e.getMessage(), "Save", JOptionPane.ERROR_MESSAGE);
 		}
-		if (boardState[index] == 9) { //if the cell we just opened is a mine
-			dead = true;
+	}
+	
+	public void load() { //opens a saved game and carries on playing it
+		Path path = choose(false);
+		if (path == null)
+			return;
+		SaveFile loaded;
+		try {
+			loaded = SaveFile.open(path);
+		} catch (IOException e) {
+			JOptionPane.showMessageDialog(null, "Couldn't open the game: " + e.getMessage(), "Open", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		closeSave();
+		saveFile = loaded;
+		board = loaded.getBoard();
+		board.setListener(Metrics.boards);
+		history.startGame(board);
+		solver = null;
+		clock.reset(loaded.getTime());
+		clock.follow(board); //a saved game that was being played carries on timing straight away
+		gameSetting = Math.max(1, Math.min(4, loaded.getDifficulty()));
+		gameParameters = new int[] {board.getCols(), board.getRows(), board.getMineCount()};
+		layoutBoard();
+		updatePanel();
+	}
+	
+	private void closeSave() { //brings the save up to date with the game and lets go of it
+		if (saveFile == null)
+			return;
+		try {
+			saveFile.checkpoint(clock.getMillis(), gameSetting);
+			saveFile.close();
+		} catch (IOException e) {
+			System.out.println("Could not finish saving " + saveFile.getPath() + ": " + e.getMessage());
+		}
+		saveFile = null;
+	}
+	
+	private Solver solver() { //the solver for the current board, made the first time it's needed so that starting a game stays instant
+		if (solver == null)
+			solver = new Solver(board);
+		return solver;
+	}
+	
+	private void findNoGuessBoard(int click) { //looks for a seed that can be solved from click without guessing in the background, then swaps it in and opens click
+		Board searched = board;
+		int cols = board.getCols(), rows = board.getRows(), mines = board.getMineCount();
+		long seed = board.getSeed();
+		searching = true;
+		gameboardPanel.setEnabled(false);
+		setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+		CompletableFuture.supplyAsync(() -> noGuessGenerator.generate(cols, rows, mines, click, seed, NO_GUESS_BUDGET), noGuessSearch).thenAccept(result -> SwingUtilities.invokeLater(() -> {
+			searching = false;
+			gameboardPanel.setEnabled(true);
+			setCursor(Cursor.getDefaultCursor());
 			if (debugMode)
-				System.out.println(Arrays.toString(mines));
-			for (int i = 0; i < gameParameters[0]*gameParameters[1]; i++) { //reveal all other mines and which flags were wrong
-				if (Arrays.binarySearch(mines, i) >= 0) {
-					if (currentBoardState[i] != 10) {
-						currentBoardState[i] = 9;
-					}
-				} else if (currentBoardState[i] == 10) {
-					currentBoardState[i] = 11;
-				}
+				System.out.println(result);
+			Metrics.boards.rerolled("needs a guess", result.rerolls);
+			if (board != searched || board.isGenerated())
+				return; //a different game was started in the meantime
+			if (result.found) {
+				board.clear(result.seed);
+				history.startGame(board); //a different game as far as the journal is concerned
+			} else {
+				JOptionPane.showMessageDialog(null, "Couldn't find a board without guesses in time (" + result.attempts + " tries) - this one might need a guess", "No-guess", 1);
 			}
-			updatePanel();
-			JOptionPane.showMessageDialog(null, "You lost! \nPress 'n' to play again, or press 'c' to change game parameters", "Too bad!", 1); //display losing screen
+			clickStart = System.nanoTime();
+			clickCell = click;
+			leftClick(click);
+			clickStart = 0;
+			titleUpdate();
+		}));
+	}
+	
+	public void togglePause() { //stops the clock and hides the board, so a paused game can't be looked over for free
+		if (!clock.isRunning() && !clock.isPaused())
+			return; //nothing to pause before the first click or after the game is over
+		if (clock.isPaused())
+			clock.resume();
+		else
+			clock.pause();
+		gameboardPanel.setVisible(!clock.isPaused());
+		titleUpdate();
+	}
+	
+	public void undo() { //takes back the last move
+		if (history.undo())
+			afterHistory();
+	}
+	
+	public void redo() { //puts back the last move that was taken back
+		if (history.redo())
+			afterHistory();
+	}
+	
+	private void afterHistory() { //the board may have changed anywhere, so start the solver over and repaint it all
+		solver = null;
+		probabilities = null;
+		clock.follow(board); //undoing the move that lost the game gets the clock going again
+		refreshHeatmap();
+		gameboardPanel.setHighlight(-1);
+		gameboardPanel.repaint();
+		minimap.repaint();
+		titleUpdate();
+	}
+	
+	public void hint() { //highlights a cell that can be opened without guessing
+		if (board.isOver() || !board.isGenerated())
+			return;
+		int cell = solver().nextSafeMove();
+		if (cell < 0) {
+			JOptionPane.showMessageDialog(null, "There is no cell that is certainly safe - you'll have to guess", "Hint", 1);
+			return;
 		}
+		gameboardPanel.setHighlight(cell);
+	}
+	
+	public void autoPlay() { //opens every cell that can be worked out, until the game is done or a guess is needed
+		if (board.isOver() || !board.isGenerated())
+			return;
+		changed.clear();
+		solver().autoPlay(changed);
+		afterMove();
+	}
+	
+	public void flagMines() { //flags every cell that is certainly a mine
+		if (board.isOver() || !board.isGenerated())
+			return;
+		changed.clear();
+		solver().flagCertainMines(changed);
+		afterMove();
+	}
+	
+	private void afterMove() { //shows the result of whatever just changed the cells in changed
+		clock.follow(board); //the first click starts the clock, and the last one stops it
+		gameboardPanel.setHighlight(-1);
+		if (probabilities != null)
+			probabilities.update(changed);
+		if (board.isDead())
+			lose();
+		else if (!changed.isEmpty()) {
+			updatePanel(changed);
+			refreshHeatmap();
+		}
+		titleUpdate();
+	}
+	
+	private void refreshHeatmap() { //starts working out the heatmap for the board as it is now. it goes up over the board once it's ready, unless something changed in the meantime
+		if (!heatmap || !board.isGenerated() || board.isOver()) {
+			if (probabilities != null)
+				probabilities.cancel();
+			gameboardPanel.setProbabilities(null);
+			return;
+		}
+		if (probabilities == null || probabilities.getBoard() != board)
+			probabilities = new ProbabilityEngine(board);
+		CompletableFuture<ProbabilityEngine.Result> next = probabilities.compute(solver(), HEATMAP_BUDGET);
+		next.thenAccept(result -> SwingUtilities.invokeLater(() -> {
+			if (next.isCancelled())
+				return; //a newer one is on its way
+			gameboardPanel.setProbabilities(result);
+			if (debugMode)
+				System.out.println("Heatmap: " + result);
+		}));
+	}
+	
+	public void lose() { //displays the losing screen once the board reports that a mine was opened
+		if (debugMode)
+			System.out.println("Dead");
+		updatePanel();
+		JOptionPane.showMessageDialog(null, "You lost! \nPress 'n' to play again, or press 'c' to change game parameters", "Too bad!", 1); //display losing screen
 	}
 
 	@Override
 	public void mouseReleased(MouseEvent e) {
-		int click = Arrays.asList(buttons).indexOf(e.getSource()); //store index of click here
-		if (!dead && !solved && generated) { //if we're not dead or done, and the game is generated
-			if (SwingUtilities.isRightMouseButton(e)) { //if it's a right click
-				if (debugMode)
-					System.out.println("Right Click");
-				if (currentBoardState[click] < 0) { //then flag the cell if its not flagged and is unopened
-					currentBoardState[click] = 10;
-					updatePanel();
-					minesLeft--;
-				} else if (currentBoardState[click] == 10) { //else deflag it if it is
-					currentBoardState[click] = -1;
-					updatePanel();
-					minesLeft++;
-				}
+		int click = gameboardPanel.cellAt(e.getX(), e.getY()); //store index of click here
+		clickStart = System.nanoTime(); //timed until it's on screen (see clickShown)
+		clickCell = click;
+		if (click >= 0 && !board.isOver() && !searching) { //if we're not dead or done, and not still waiting on a no-guess board
+			if (SwingUtilities.isRightMouseButton(e)) { //if it's a right click, then flag the cell if its not flagged and is unopened, or deflag it if it is
+				clickKind = "flag";
+				changed.clear();
+				if (board.flag(click))
+					changed.add(click);
+				afterMove();
+			} else if (!board.isGenerated() && noGuess) { //the first left click of a no-guess game opens once a board for it is found
+				findNoGuessBoard(click);
 			} else { //if left click
-				if (currentBoardState[click] < 0) { //if empty cell, then open it
-					open(click);
-					updatePanel();
-				} else if (currentBoardState[click] != 10 && currentBoardState[click] > 0) { //if its a # from 1-8 (9 will kill you so it doesn't matter to check, and 11 will only happen on death)
-					int flags = 0;
-					for (int i = 0; i < checkers.length; i++) { //we check for the amount of flags around the cell
-						if (wrapCheck(click, i)) {
-							i++;
-						}
-						try {
-							if (currentBoardState[click + checkers[i]] == 10) {
-								flags++;
-							}
-						} catch (Exception f) {
-							if (debugMode)
-								System.out.println("Caught: tried to check cell outside of game borders");
-						}
-						
-					}
-					if (flags == currentBoardState[click]) { //if the amount of flags matches the expected amount, then we open all unopened and unflagged cells around it
-						for (int i = 0; i < checkers.length; i++) {
-							if (wrapCheck(click, i)) {
-								i++;
-							}
-							try {
-								if (currentBoardState[click + checkers[i]] != 10 && currentBoardState[click + checkers[i]] < 0) {
-									if (debugMode)
-										System.out.println("open");
-									open(click + checkers[i]);
-								}
-							} catch (Exception f) {
-								if (debugMode)
-									System.out.println("Caught: tried to access cell outside of game borders");
-							}
-						}
-						updatePanel();
-					}
-				}
+				leftClick(click);
 			}
 		}
-		if (!generated && !SwingUtilities.isRightMouseButton(e)) { //if the game is ungenerated and the user clicks any button, then we generate the game such that the button that the user clicked is always an empty cell
-			generateGame(click);
-			open(click);
-			updatePanel();
-		}
-		titleUpdate(0);
+		clickStart = 0; //if nothing was repainted by now, the click didn't change anything
+		titleUpdate();
+	}
+	
+	private void leftClick(int click) { //opens or chords the clicked cell
+		changed.clear();
+		clickKind = board.view(click) < 0 ? "open" : "chord";
+		if (board.view(click) < 0) //if unopened cell, then open it. if the game is ungenerated, this generates it such that the cell that the user clicked is always an empty cell
+			board.open(click, changed);
+		else //if its a # from 1-8, and the amount of flags around it matches, then we open all unopened and unflagged cells around it
+			board.chord(click, changed);
+		if (solver != null) //otherwise it gets made later on, and catches up then
+			solver.update(changed);
+		afterMove();
 	}
 	@Override
 	public void mouseClicked(MouseEvent e) {
 	}
 	@Override
 	public void mouseEntered(MouseEvent e) {
+	}
+	@Override
+	public void mouseMoved(MouseEvent e) {
 		if (debugMode)
-			setTitle(debugString + Arrays.asList(buttons).indexOf(e.getSource())); //debug feature
+			debugOverlay.setHovered(board, gameboardPanel.cellAt(e.getX(), e.getY())); //debug feature
+	}
+	@Override
+	public void mouseDragged(MouseEvent e) {
 	}
 	@Override
 	public void mouseExited(MouseEvent e) {
@@ -0,0 +1,80 @@
+/**
+ * Description: Minimap for big boards
+ * Shows the whole board shrunk down to a small fixed size, with a box around the part that is currently visible in the
+ * scroll pane. Clicking or dragging on it moves the view there. Every minimap pixel samples a single cell, so painting
+ * it costs the same no matter how big the board is.
+ */
+
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import javax.swing.*;
+
+@SuppressWarnings("serial")
+public class MinimapPanel extends JComponent {
+	private static final int MAX_SIZE = 160; //the longest side of the minimap, in pixels
+
+	private final BoardPanel boardPanel; //the board being shown
+	private final JViewport viewport; //the viewport the board panel is scrolled in
+	private BufferedImage image; //reused between paints as long as the minimap size doesn't change
+
+	public MinimapPanel(BoardPanel boardPanel, JViewport viewport) {
+		this.boardPanel = boardPanel;
+		this.viewport = viewport;
+		setFocusable(false);
+		viewport.addChangeListener(e -> repaint()); //move the view box whenever the board is scrolled or zoomed
+
+		MouseAdapter navigate = new MouseAdapter() {
+			@Override
+			public void mousePressed(MouseEvent e) {
+				centreOn(e.getX(), e.getY());
+			}
+
+			@Override
+			public void mouseDragged(MouseEvent e) {
+				centreOn(e.getX(), e.getY());
+			}
+		};
+		addMouseListener(navigate);
+		addMouseMotionListener(navigate);
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		Board board = boardPanel.getBoard();
+		double scale = Math.min(1.0, (double) MAX_SIZE / Math.max(board.getCols(), board.getRows()));
+		return new Dimension(Math.max(1, (int) (board.getCols() * scale)), Math.max(1, (int) (board.getRows() * scale)));
+	}
+
+	//scrolls the board so the cell under minimap pixel (x, y) is in the middle of the view
+	private void centreOn(int x, int y) {
+		Dimension size = getPreferredSize(), view = viewport.getExtentSize(), full = boardPanel.getPreferredSize();
+		int cx = (int) ((long) x * full.width / size.width) - view.width / 2;
+		int cy = (int) ((long) y * full.height / size.height) - view.height / 2;
+		viewport.setViewPosition(new Point(Math.max(0, Math.min(cx, full.width - view.width)), Math.max(0, Math.min(cy, full.height - view.height))));
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		Board board = boardPanel.getBoard();
+		Dimension size = getPreferredSize();
+		if (image == null || image.getWidth() != size.width || image.getHeight() != size.height)
+			image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+		int cols = board.getCols(), rows = board.getRows();
+		for (int y = 0; y < size.height; y++) {
+			int row = (int) ((long) y * rows / size.height);
+			for (int x = 0; x < size.width; x++) {
+				int col = (int) ((long) x * cols / size.width);
+				image.setRGB(x, y, CellPainter.blockColour(board.view(row * cols + col)).getRGB());
+			}
+		}
+		g.drawImage(image, 0, 0, null);
+
+		//and the box around what the scroll pane is showing
+		Rectangle visible = viewport.getViewRect();
+		Dimension full = boardPanel.getPreferredSize();
+		g.setColor(Color.yellow);
+		g.drawRect((int) ((long) visible.x * size.width / full.width), (int) ((long) visible.y * size.height / full.height),
+				Math.max(2, (int) ((long) visible.width * size.width / full.width) - 1), Math.max(2, (int) ((long) visible.height * size.height / full.height) - 1));
+	}
+}
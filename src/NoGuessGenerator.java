@@ -0,0 +1,98 @@
+/**
+ * Description: No-guess board generation
+ * Finds a board that can be solved from the first click without ever having to guess. Candidate boards are generated from
+ * seeds derived from a root seed and checked with the Solver, on every core of a fork-join pool at once.
+ *
+ * The result is the solvable candidate with the lowest attempt number, no matter how many threads there are or how they get
+ * scheduled, so the same (size, mines, first click, root seed) always gives the same board, as long as the time budget doesn't
+ * cut the search short. Workers only skip attempts after the best one found so far.
+ */
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class NoGuessGenerator {
+	private final ForkJoinPool pool; //where the candidate boards get checked
+
+	public static class Result {
+		public final boolean found; //whether a solvable board was found within the time budget
+		public final long seed; //seed of the board that was found. Board(cols, rows, mines, seed) opened at the first click reproduces it
+		public final long attempts, rejections; //how many candidates were checked, and how many of those needed a guess
+		public final long rerolls; //candidates before the one that was found, or every candidate if none was. the same for any amount of threads
+		public final long nanos; //how long it took
+
+		Result(boolean found, long seed, long attempts, long rejections, long rerolls, long nanos) {
+			this.found = found;
+			this.seed = seed;
+			this.attempts = attempts;
+			this.rejections = rejections;
+			this.rerolls = rerolls;
+			this.nanos = nanos;
+		}
+
+		@Override
+		public String toString() {
+			return (found ? "Found seed " + seed : "Nothing found") + " after " + attempts + " attempts (" + rejections + " rejected) in " + nanos / 1000000 + "ms";
+		}
+	}
+
+	public NoGuessGenerator() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	public NoGuessGenerator(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	//seed of candidate number attempt
+	public static long attemptSeed(long rootSeed, long attempt) {
+		return Board.deriveSeed(rootSeed, attempt);
+	}
+
+	//whether board (freshly made, not generated yet) can be solved from firstClick using only deductions
+	public static boolean isSolvable(Board board, int firstClick) {
+		board.open(firstClick);
+		Solver solver = new Solver(board);
+		solver.autoPlay(null);
+		return board.isSolved();
+	}
+
+	public Result generate(int cols, int rows, int mines, int firstClick, long rootSeed, long budgetMillis) {
+		long start = System.nanoTime(), deadline = start + budgetMillis * 1000000;
+		AtomicLong next = new AtomicLong(), best = new AtomicLong(Long.MAX_VALUE), attempts = new AtomicLong(), rejections = new AtomicLong();
+
+		//each worker keeps taking the next attempt number until one after the best so far comes up, or time runs out
+		List<RecursiveAction> workers = new ArrayList<>();
+		for (int w = 0; w < pool.getParallelism(); w++) {
+			workers.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					while (System.nanoTime() < deadline) {
+						long attempt = next.getAndIncrement();
+						if (attempt > best.get())
+							return; //someone already found an earlier solvable board
+						attempts.incrementAndGet();
+						if (isSolvable(new Board(cols, rows, mines, attemptSeed(rootSeed, attempt)), firstClick))
+							best.accumulateAndGet(attempt, Math::min);
+						else
+							rejections.incrementAndGet();
+					}
+				}
+			});
+		}
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(workers);
+			}
+		});
+		long found = best.get();
+		boolean any = found != Long.MAX_VALUE;
+		return new Result(any, any ? attemptSeed(rootSeed, found) : 0, attempts.get(), rejections.get(), any ? found : attempts.get(), System.nanoTime() - start);
+	}
+}
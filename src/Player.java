@@ -0,0 +1,94 @@
+/**
+ * Description: Automatic players
+ * Something that plays a whole game on a Board by itself, for running lots of games without a display (see SimulationRunner).
+ * Players can't keep any state between games, since the same one plays many games on different threads at once.
+ *
+ * Besides the built in "random" and "solver" players, any class implementing this with a no-argument constructor can be
+ * picked by its class name.
+ */
+
+import java.util.SplittableRandom;
+
+public interface Player {
+	//plays board (freshly made, not generated yet) until it's won or lost, taking any random choices from rng. returns how many clicks it took
+	int play(Board board, SplittableRandom rng);
+
+	//clicks random unopened cells until it wins or dies. a baseline to compare other players against
+	class RandomPlayer implements Player {
+		@Override
+		public int play(Board board, SplittableRandom rng) {
+			int clicks = 0;
+			while (!board.isOver()) {
+				board.open(pick(board, null, rng));
+				clicks++;
+			}
+			return clicks;
+		}
+
+		@Override
+		public String toString() {
+			return "random";
+		}
+	}
+
+	//opens every cell the Solver can work out, and only clicks a random cell when it's stuck
+	class SolverPlayer implements Player {
+		@Override
+		public int play(Board board, SplittableRandom rng) {
+			Solver solver = null; //made after the first click, since there is nothing to solve before that
+			IntList revealed = new IntList();
+			int clicks = 0;
+			while (!board.isOver()) {
+				revealed.clear();
+				board.open(pick(board, solver, rng), revealed);
+				clicks++;
+				if (solver == null)
+					solver = new Solver(board);
+				else
+					solver.update(revealed);
+				clicks += solver.autoPlay(null);
+			}
+			return clicks;
+		}
+
+		@Override
+		public String toString() {
+			return "solver";
+		}
+	}
+
+	//a random unopened cell that the solver (if there is one) doesn't know to be a mine
+	static int pick(Board board, Solver solver, SplittableRandom rng) {
+		for (int tries = 0; tries < 64; tries++) { //usually most of the board is still closed, so a few random tries are enough
+			int cell = rng.nextInt(board.size());
+			if (!board.isRevealed(cell) && (solver == null || !solver.isCertainlyMine(cell)))
+				return cell;
+		}
+		int start = rng.nextInt(board.size()), fallback = -1; //otherwise go looking from a random spot
+		for (int i = 0; i < board.size(); i++) {
+			int cell = (start + i) % board.size();
+			if (!board.isRevealed(cell)) {
+				if (solver == null || !solver.isCertainlyMine(cell))
+					return cell;
+				fallback = cell;
+			}
+		}
+		return fallback; //only known mines are left, which can't happen on a board that isn't over yet
+	}
+
+	//the player called name: "random", "solver", or the name of a class implementing Player
+	static Player forName(String name) {
+		switch (name) {
+		case "random":
+			return new RandomPlayer();
+		case "solver":
+			return new SolverPlayer();
+		default:
+			try {
+				return Class.forName(name).asSubclass(Player.class).getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | ClassCastException e) {
+				throw new IllegalArgumentException("Unknown player: " + name, e);
+			}
+		}
+	}
+}
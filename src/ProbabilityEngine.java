@@ -0,0 +1,649 @@
+/**
+ * Description: Mine probability engine
+ * Works out, for every unopened cell, the chance that it is a mine given everything the player can see, for the probability
+ * heatmap. Like the Solver, it only ever looks at the opened numbers.
+ *
+ * The frontier (the unknown cells next to a number) splits into independent components. For each component, every mine placement
+ * that fits its numbers is counted, split by how many mines it uses and by which cells are mines in it. A placement using k mines
+ * leaves M - k mines for the F unknown cells away from the frontier, which can go C(F, M - k) ways, so each placement is weighted
+ * by that. The components are tied together only through that total, and are combined by convolving their counts, so each one is
+ * still only ever enumerated on its own. Cells the Solver already knows are left out (at 0% or 100%) before anything is counted,
+ * and numbers with nothing but known mines left around them are dropped for good, so the work follows the size of the frontier
+ * rather than of the board.
+ *
+ * Counts are exact where the enumeration finishes within the time budget. Components too big for that get an estimate instead:
+ * random walks down the same search tree, each weighted by the number of choices it had (Knuth's estimator, which gets the counts
+ * right on average), run on every core of a fork-join pool until the budget runs out.
+ *
+ * Work happens off the caller's thread and can be cancelled at any time; starting a new computation cancels the last one. Exact
+ * counts are kept per component, so after a click only the components it changed get enumerated again.
+ */
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class ProbabilityEngine {
+	public static final int EXACT_LIMIT = 48; //components with more unknown cells than this go straight to sampling
+	private static final int CHECK_MASK = 4095; //the enumeration looks at the clock and the cancel flag every this + 1 nodes
+	private static final int BATCH = 64; //random walks between looks at the clock
+	private static final int CACHE_SIZE = 4096; //components whose exact counts are kept
+
+	private static final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "Probabilities");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Board board;
+	private final ForkJoinPool pool; //where the random walks run
+	private final IntList frontier = new IntList(); //revealed numbers that may still have unopened neighbours the solver doesn't know to be mines. only used on the caller's thread
+	private final Map<Key, Counts> cache = new LinkedHashMap<Key, Counts>(16, 0.75f, true) { //exact counts by component, least recently used first. only used on the worker thread
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Counts> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+	private CompletableFuture<Result> pending; //the computation that is running or queued, if any
+
+	public static class Result {
+		private final Solver solver; //for the cells it knows, which are left out of the rest
+		private final int[] cells; //unopened cells next to a number, sorted
+		private final float[] probabilities; //the chance each of those cells is a mine, or NaN if the numbers contradict each other
+		private final float other; //the chance any other unopened cell is a mine
+		private final boolean exact; //whether every count was exact, rather than estimated
+		private final int components, sampled; //frontier components, and how many of them had to be estimated
+		private final long nanos; //how long it took
+
+		Result(Solver solver, int[] cells, float[] probabilities, float other, boolean exact, int components, int sampled, long nanos) {
+			this.solver = solver;
+			this.cells = cells;
+			this.probabilities = probabilities;
+			this.other = other;
+			this.exact = exact;
+			this.components = components;
+			this.sampled = sampled;
+			this.nanos = nanos;
+		}
+
+		//chance that cell (which must be unopened) is a mine, from 0 to 1. call on the thread that uses the solver
+		public float probability(int cell) {
+			if (solver.isCertainlyMine(cell))
+				return 1;
+			if (solver.isCertainlySafe(cell))
+				return 0;
+			int i = Arrays.binarySearch(cells, cell);
+			return i >= 0 ? probabilities[i] : other;
+		}
+
+		public float getOther() {
+			return other;
+		}
+
+		public boolean isExact() {
+			return exact;
+		}
+
+		public int getComponents() {
+			return components;
+		}
+
+		public int getSampled() {
+			return sampled;
+		}
+
+		public long getNanos() {
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			return components + " components (" + sampled + " estimated), " + (exact ? "exact" : "estimated") + " in " + Histogram.formatNanos(nanos);
+		}
+	}
+
+	//one component's mine placements, counted by how many mines they use. scaled by any common factor, which cancels out in the end
+	private static class Counts {
+		final double[] ways; //ways[k]: placements using k mines
+		final double[][] mineWays; //mineWays[k][i]: placements using k mines where cell i is a mine. null where ways[k] is 0
+		int scale = Integer.MIN_VALUE; //power of two the weights are relative to, while sampling
+
+		Counts(int cells) {
+			ways = new double[cells + 1];
+			mineWays = new double[cells + 1][];
+		}
+
+		//adds a placement worth 2^weight placements
+		void add(int weight, boolean[] assignment, int mines) {
+			if (weight > scale)
+				rescale(weight);
+			double w = Math.scalb(1.0, weight - scale);
+			ways[mines] += w;
+			double[] row = mineWays[mines];
+			if (row == null)
+				row = mineWays[mines] = new double[assignment.length];
+			for (int i = 0; i < assignment.length; i++) {
+				if (assignment[i])
+					row[i] += w;
+			}
+		}
+
+		void merge(Counts other) {
+			if (other.scale == Integer.MIN_VALUE)
+				return; //never found a placement
+			if (other.scale > scale)
+				rescale(other.scale);
+			double w = Math.scalb(1.0, other.scale - scale);
+			for (int k = 0; k < ways.length; k++) {
+				ways[k] += other.ways[k] * w;
+				if (other.mineWays[k] == null)
+					continue;
+				if (mineWays[k] == null)
+					mineWays[k] = new double[other.mineWays[k].length];
+				for (int i = 0; i < mineWays[k].length; i++) {
+					mineWays[k][i] += other.mineWays[k][i] * w;
+				}
+			}
+		}
+
+		private void rescale(int to) {
+			if (scale != Integer.MIN_VALUE) {
+				double w = Math.scalb(1.0, scale - to);
+				for (int k = 0; k < ways.length; k++) {
+					ways[k] *= w;
+					if (mineWays[k] != null) {
+						for (int i = 0; i < mineWays[k].length; i++) {
+							mineWays[k][i] *= w;
+						}
+					}
+				}
+			}
+			scale = to;
+		}
+
+		boolean isEmpty() {
+			for (double w : ways) {
+				if (w > 0)
+					return false;
+			}
+			return true;
+		}
+	}
+
+	//every placement of a component, counted. gives up when the deadline passes or the computation is cancelled
+	private static class Counter extends Solver.Enumeration {
+		private final Counts counts;
+		private final long deadline;
+		private final Future<?> task;
+		private long nodes;
+		boolean stopped;
+
+		Counter(Solver.Component component, int maxMines, long deadline, Future<?> task) {
+			super(component, maxMines);
+			counts = new Counts(component.cells.length);
+			this.deadline = deadline;
+			this.task = task;
+		}
+
+		@Override
+		boolean stopEarly() {
+			if (!stopped && (++nodes & CHECK_MASK) == 0)
+				stopped = task.isDone() || System.nanoTime() > deadline;
+			return stopped;
+		}
+
+		@Override
+		void found() {
+			counts.add(0, assignment, mines);
+		}
+	}
+
+	//random walks down the search tree of a component, each picking a random allowed value for every cell in turn
+	private static class Sampler extends Solver.Enumeration {
+		private final Counts counts;
+
+		Sampler(Solver.Component component, int maxMines) {
+			super(component, maxMines);
+			counts = new Counts(component.cells.length);
+		}
+
+		void sample(SplittableRandom random) {
+			int cell = 0, choices = 0; //the walk is worth 2^choices placements, one for every cell that could have gone either way
+			for (; cell < assignment.length; cell++) {
+				boolean safe = allows(cell, 0), mine = allows(cell, 1);
+				if (!safe && !mine)
+					break; //dead end, which counts as a walk that found nothing
+				if (safe && mine)
+					choices++;
+				place(cell, mine && (!safe || random.nextBoolean()) ? 1 : 0);
+			}
+			if (cell == assignment.length)
+				counts.add(choices, assignment, mines);
+			while (cell > 0) {
+				cell--;
+				unplace(cell, assignment[cell] ? 1 : 0);
+			}
+		}
+	}
+
+	//a component's cells and numbers, for finding it in the cache
+	private static final class Key {
+		private final int[] data;
+		private final int hash;
+
+		Key(Solver.Component component) {
+			IntList data = new IntList();
+			for (int cell : component.cells) {
+				data.add(cell);
+			}
+			for (int k = 0; k < component.constraints.length; k++) {
+				data.add(-1 - component.remaining[k]); //negative, so constraints can't be mistaken for cells
+				for (int cell : component.constraints[k]) {
+					data.add(cell);
+				}
+			}
+			this.data = data.toArray();
+			hash = Arrays.hashCode(this.data);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && Arrays.equals(data, ((Key) o).data);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	//what the board looked like when a computation was started, so the board can change while it runs
+	private static class Snapshot {
+		final Solver solver;
+		final List<Solver.Component> components = new ArrayList<>();
+		int away; //F: unopened cells not next to any number
+		int mines; //M: mines not known to the solver
+
+		Snapshot(Solver solver) {
+			this.solver = solver;
+		}
+	}
+
+	public ProbabilityEngine(Board board) {
+		this(board, ForkJoinPool.commonPool());
+	}
+
+	public ProbabilityEngine(Board board, ForkJoinPool pool) {
+		this.board = board;
+		this.pool = pool;
+		rescan();
+	}
+
+	public Board getBoard() {
+		return board;
+	}
+
+	//starts from scratch, looking at every revealed cell. only needed if the board changed without update() being told about it
+	public void rescan() {
+		frontier.clear();
+		for (int i = 0; i < board.size(); i++) {
+			if (board.isRevealed(i) && !board.isMine(i) && board.getCount(i) > 0)
+				frontier.add(i);
+		}
+	}
+
+	//tells the engine which cells were just revealed (e.g. the list filled in by Board.open)
+	public void update(IntList revealed) {
+		for (int i = 0; i < revealed.size(); i++) {
+			int cell = revealed.get(i);
+			if (board.isRevealed(cell) && !board.isMine(cell) && board.getCount(cell) > 0)
+				frontier.add(cell);
+		}
+	}
+
+	//starts working out the probabilities for the board as it is now, cancelling whatever was being worked out before, and
+	//returns the result to come. solver must be for the same board and up to date. has to be called on the thread that changes the board
+	public CompletableFuture<Result> compute(Solver solver, long budgetMillis) {
+		if (solver.getBoard() != board)
+			throw new IllegalArgumentException("Solver is for a different board");
+		if (!board.isGenerated())
+			throw new IllegalStateException("Board has no mines yet");
+		cancel();
+		long start = System.nanoTime(), deadline = start + budgetMillis * 1000000;
+		Snapshot snapshot = snapshot(solver);
+		CompletableFuture<Result> task = new CompletableFuture<>();
+		pending = task;
+		worker.execute(() -> {
+			if (task.isDone())
+				return; //cancelled before it got going
+			try {
+				Result result = run(snapshot, start, deadline, task);
+				if (result != null)
+					task.complete(result);
+			} catch (RuntimeException | Error e) {
+				task.completeExceptionally(e);
+			}
+		});
+		return task;
+	}
+
+	public void cancel() {
+		if (pending != null)
+			pending.cancel(false);
+		pending = null;
+	}
+
+	private Snapshot snapshot(Solver solver) {
+		while (solver.solve()) {
+			//bring the solver fully up to date, so every certain cell is left out of the counting
+		}
+		Snapshot snapshot = new Snapshot(solver);
+		Map<Integer, Integer> index = new HashMap<>(); //frontier cell -> position in cells
+		Set<Integer> safe = new HashSet<>(); //unopened cells known to be safe
+		IntList cells = new IntList(), remaining = new IntList();
+		List<int[]> constraints = new ArrayList<>();
+		int[] neighbours = new int[8], unknown = new int[8];
+		int kept = 0;
+		for (int f = 0; f < frontier.size(); f++) {
+			int number = frontier.get(f), n = board.neighbours(number, neighbours), u = 0, mines = 0;
+			boolean open = false; //whether it has any unopened neighbours that aren't known mines
+			for (int i = 0; i < n; i++) {
+				int cell = neighbours[i];
+				if (board.isRevealed(cell))
+					continue;
+				if (solver.isCertainlyMine(cell)) {
+					mines++;
+					continue;
+				}
+				open = true;
+				if (solver.isCertainlySafe(cell)) {
+					safe.add(cell);
+					continue;
+				}
+				Integer at = index.get(cell);
+				if (at == null) {
+					at = cells.size();
+					index.put(cell, at);
+					cells.add(cell);
+				}
+				unknown[u++] = at;
+			}
+			if (!open)
+				continue; //everything around it is open or a known mine, and will stay that way
+			frontier.set(kept++, number); //compacts the list in place, since kept never gets ahead of f
+			if (u > 0) {
+				constraints.add(Arrays.copyOf(unknown, u));
+				remaining.add(board.getCount(number) - mines);
+			}
+		}
+		frontier.truncate(kept);
+		snapshot.away = board.size() - board.getCellsOpened() - cells.size() - safe.size() - solver.getKnownMines();
+		snapshot.mines = board.getMineCount() - solver.getKnownMines();
+		split(cells.toArray(), constraints, remaining, snapshot.components);
+		return snapshot;
+	}
+
+	//splits the frontier into components, with cells numbered in the order the numbers reach them
+	private static void split(int[] cells, List<int[]> constraints, IntList remaining, List<Solver.Component> components) {
+		int[] parent = new int[cells.length];
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = i;
+		}
+		for (int[] constraint : constraints) {
+			for (int i = 1; i < constraint.length; i++) {
+				int a = find(parent, constraint[0]), b = find(parent, constraint[i]);
+				parent[b] = a;
+			}
+		}
+		Map<Integer, IntList> numbersOf = new LinkedHashMap<>(); //root -> constraints in it, in frontier order
+		for (int k = 0; k < constraints.size(); k++) {
+			numbersOf.computeIfAbsent(find(parent, constraints.get(k)[0]), root -> new IntList()).add(k);
+		}
+		int[] local = new int[cells.length];
+		Arrays.fill(local, -1);
+		for (IntList numbers : numbersOf.values()) {
+			IntList members = new IntList();
+			int[][] localConstraints = new int[numbers.size()][];
+			int[] localRemaining = new int[numbers.size()];
+			for (int j = 0; j < numbers.size(); j++) {
+				int[] constraint = constraints.get(numbers.get(j));
+				localConstraints[j] = new int[constraint.length];
+				localRemaining[j] = remaining.get(numbers.get(j));
+				for (int i = 0; i < constraint.length; i++) {
+					int cell = constraint[i];
+					if (local[cell] < 0) {
+						local[cell] = members.size();
+						members.add(cells[cell]);
+					}
+					localConstraints[j][i] = local[cell];
+				}
+			}
+			components.add(new Solver.Component(members.toArray(), localConstraints, localRemaining));
+		}
+	}
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	//counts every component and puts them together. runs on the worker thread. returns null if cancelled
+	private Result run(Snapshot snapshot, long start, long deadline, Future<?> task) {
+		List<Solver.Component> components = new ArrayList<>(snapshot.components);
+		components.sort(Comparator.comparingInt(c -> c.cells.length)); //cheapest first, so a tight budget still gets the most exact ones
+		int maxMines = Math.max(0, snapshot.mines);
+		long exactDeadline = start + (deadline - start) / 2; //the other half is kept for whatever needs sampling
+		Counts[] counts = new Counts[components.size()];
+		List<Integer> toSample = new ArrayList<>();
+		for (int c = 0; c < components.size(); c++) {
+			Solver.Component component = components.get(c);
+			if (component.cells.length > EXACT_LIMIT) {
+				toSample.add(c);
+				continue;
+			}
+			Key key = new Key(component);
+			counts[c] = cache.get(key);
+			if (counts[c] != null)
+				continue;
+			Counter counter = new Counter(component, maxMines, exactDeadline, task);
+			counter.run(0);
+			if (task.isDone())
+				return null;
+			if (counter.stopped) {
+				toSample.add(c);
+				continue;
+			}
+			counts[c] = counter.counts;
+			cache.put(key, counts[c]);
+		}
+		for (int s = 0; s < toSample.size(); s++) {
+			int c = toSample.get(s);
+			long now = System.nanoTime();
+			counts[c] = sample(components.get(c), maxMines, now + Math.max(0, deadline - now) / (toSample.size() - s), task);
+			if (task.isDone())
+				return null;
+		}
+		return combine(snapshot, components, counts, toSample.size(), start);
+	}
+
+	//estimates a component's counts with random walks on every core of the pool, until the deadline
+	private Counts sample(Solver.Component component, int maxMines, long deadline, Future<?> task) {
+		SplittableRandom random = new SplittableRandom();
+		List<Sampler> samplers = new ArrayList<>();
+		List<RecursiveAction> workers = new ArrayList<>();
+		for (int w = 0; w < pool.getParallelism(); w++) {
+			Sampler sampler = new Sampler(component, maxMines);
+			SplittableRandom own = random.split();
+			samplers.add(sampler);
+			workers.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					do {
+						for (int i = 0; i < BATCH; i++) {
+							sampler.sample(own);
+						}
+					} while (!task.isDone() && System.nanoTime() < deadline);
+				}
+			});
+		}
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(workers);
+			}
+		});
+		Counts counts = samplers.get(0).counts;
+		for (int w = 1; w < samplers.size(); w++) {
+			counts.merge(samplers.get(w).counts);
+		}
+		return counts;
+	}
+
+	//weighs every component's counts by how the rest of the mines can be placed, and turns them into probabilities
+	private static Result combine(Snapshot snapshot, List<Solver.Component> components, Counts[] counts, int sampled, long start) {
+		List<Solver.Component> used = new ArrayList<>();
+		List<Counts> parts = new ArrayList<>();
+		int away = snapshot.away, total = 0;
+		for (int c = 0; c < components.size(); c++) {
+			if (counts[c].isEmpty()) {
+				away += components.get(c).cells.length; //no placement found (a contradiction, or sampling came up empty), so its cells are treated like any other
+				continue;
+			}
+			used.add(components.get(c));
+			parts.add(counts[c]);
+			total += counts[c].ways.length - 1;
+		}
+
+		//weight[t]: how many ways the mines not in the frontier can go, if the frontier has t of them (as a ratio to the biggest one)
+		int mines = snapshot.mines, low = Math.max(0, mines - away), high = Math.min(total, mines);
+		double[] weight = new double[total + 1], logs = new double[total + 1];
+		for (int t = low + 1; t <= high; t++) {
+			logs[t] = logs[t - 1] + Math.log((double) (mines - t + 1) / (away - mines + t)); //C(F, M - t) / C(F, M - t + 1)
+		}
+		double biggest = Double.NEGATIVE_INFINITY;
+		for (int t = low; t <= high; t++) {
+			biggest = Math.max(biggest, logs[t]);
+		}
+		for (int t = low; t <= high; t++) {
+			weight[t] = Math.exp(logs[t] - biggest);
+		}
+
+		double[][] outside = new double[parts.size()][];
+		double[] all = new double[] {1};
+		if (!parts.isEmpty()) {
+			double[][] tree = new double[parts.size() * 4][];
+			build(tree, 1, 0, parts.size(), parts);
+			down(tree, 1, 0, parts.size(), weight, outside);
+			all = tree[1];
+		}
+
+		IntList cells = new IntList();
+		List<Float> probabilities = new ArrayList<>();
+		for (int j = 0; j < parts.size(); j++) {
+			Counts part = parts.get(j);
+			double[] g = outside[j];
+			double z = 0;
+			for (int k = 0; k < part.ways.length; k++) {
+				z += part.ways[k] * g[k];
+			}
+			int[] members = used.get(j).cells;
+			for (int i = 0; i < members.length; i++) {
+				double p = 0;
+				for (int k = 0; k < part.ways.length; k++) {
+					if (part.mineWays[k] != null)
+						p += part.mineWays[k][i] * g[k];
+				}
+				cells.add(members[i]);
+				probabilities.add(z > 0 ? (float) (p / z) : Float.NaN);
+			}
+		}
+
+		double z = 0, expected = 0; //expected: mines left for the cells away from the frontier, times z
+		for (int t = 0; t < all.length; t++) {
+			z += all[t] * weight[t];
+			expected += all[t] * weight[t] * (mines - t);
+		}
+		float other = away > 0 && z > 0 ? (float) (expected / z / away) : Float.NaN;
+
+		//sorted by cell, with each probability riding along in the low bits
+		long[] packed = new long[cells.size()];
+		for (int i = 0; i < packed.length; i++) {
+			packed[i] = (long) cells.get(i) << 32 | Float.floatToRawIntBits(probabilities.get(i)) & 0xFFFFFFFFL;
+		}
+		Arrays.sort(packed);
+		int[] sortedCells = new int[packed.length];
+		float[] sortedProbabilities = new float[packed.length];
+		for (int i = 0; i < packed.length; i++) {
+			sortedCells[i] = (int) (packed[i] >>> 32);
+			sortedProbabilities[i] = Float.intBitsToFloat((int) packed[i]);
+		}
+		return new Result(snapshot.solver, sortedCells, sortedProbabilities, other, sampled == 0, components.size(), sampled, System.nanoTime() - start);
+	}
+
+	//tree[node]: the counts of parts from to to convolved together, i.e. how many ways those components can hold each total of mines
+	private static void build(double[][] tree, int node, int from, int to, List<Counts> parts) {
+		if (to - from == 1) {
+			tree[node] = normalize(parts.get(from).ways.clone());
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		build(tree, node * 2, from, mid, parts);
+		build(tree, node * 2 + 1, mid, to, parts);
+		double[] a = tree[node * 2], b = tree[node * 2 + 1], product = new double[a.length + b.length - 1];
+		for (int i = 0; i < a.length; i++) {
+			if (a[i] == 0)
+				continue;
+			for (int j = 0; j < b.length; j++) {
+				product[i + j] += a[i] * b[j];
+			}
+		}
+		tree[node] = normalize(product);
+	}
+
+	//outside[t]: the weight of parts from to to holding t mines between them, given every way the rest of the board can go.
+	//passes it down to each half, until every component knows the weight of each of its own totals
+	private static void down(double[][] tree, int node, int from, int to, double[] outside, double[][] leaves) {
+		if (to - from == 1) {
+			leaves[from] = outside;
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		down(tree, node * 2, from, mid, normalize(correlate(outside, tree[node * 2 + 1])), leaves);
+		down(tree, node * 2 + 1, mid, to, normalize(correlate(outside, tree[node * 2])), leaves);
+	}
+
+	//out[s] = sum over u of part[u] * outside[s + u]
+	private static double[] correlate(double[] outside, double[] part) {
+		double[] out = new double[outside.length - part.length + 1];
+		for (int u = 0; u < part.length; u++) {
+			if (part[u] == 0)
+				continue;
+			for (int s = 0; s < out.length; s++) {
+				out[s] += part[u] * outside[s + u];
+			}
+		}
+		return out;
+	}
+
+	//scales values so the biggest is 1, which keeps long products of counts from running out of range. the scale cancels out in the end
+	private static double[] normalize(double[] values) {
+		double max = 0;
+		for (double v : values) {
+			max = Math.max(max, v);
+		}
+		if (max > 0) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] /= max;
+			}
+		}
+		return values;
+	}
+}
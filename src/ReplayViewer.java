@@ -0,0 +1,151 @@
+/**
+ * Description: Replay viewer
+ * Plays back a journal written by the game, one entry at a time. Left and right step back and forth, page up and page down jump
+ * 100 entries, home and end go to either end, space plays or pauses, and the slider goes anywhere. Going backwards is as quick as
+ * going forwards, since History restores the nearest snapshot instead of starting over.
+ *
+ * With --headless, the whole journal is replayed with no display and the speed is printed. Usage:
+ *   java ReplayViewer [--headless] file
+ */
+
+import java.awt.*;
+import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Paths;
+import javax.swing.*;
+
+@SuppressWarnings("serial")
+public class ReplayViewer extends JFrame {
+	private static final int PLAY_DELAY = 50; //milliseconds between entries while playing
+
+	private final History history; //replays the journal
+	private final Journal journal; //what's being replayed
+	private final JSlider slider; //where in the journal we are
+	private final JScrollPane scrollPane; //holds the board panel, once there is a board
+	private final Timer player = new Timer(PLAY_DELAY, e -> step(1));
+	private BoardPanel panel; //shows the board, made when the first game starts
+	private boolean moving; //whether the slider is being moved by us rather than by the user
+
+	public static void main(String[] args) throws IOException {
+		boolean headless = args.length > 1 && args[0].equals("--headless");
+		if (args.length == 0 || (args.length > 1 && !headless)) {
+			System.out.println("Usage: java ReplayViewer [--headless] file");
+			return;
+		}
+		Journal journal = Journal.read(Paths.get(args[args.length - 1]));
+		if (headless)
+			replayHeadless(journal);
+		else
+			SwingUtilities.invokeLater(() -> new ReplayViewer(journal).setVisible(true));
+	}
+
+	//plays the whole journal straight through and reports how fast that went and how every game ended
+	private static void replayHeadless(Journal journal) {
+		History history = History.replay(journal);
+		long start = System.nanoTime();
+		int games = 0;
+		while (history.step()) {
+			int entry = history.getCursor() - 1;
+			if (journal.type(entry) == Journal.GAME_SIZE && games++ > 0)
+				System.out.println(summary(history.getBoard()));
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		if (history.getBoard() != null)
+			System.out.println(summary(history.getBoard()));
+		System.out.printf("%d entries, %d games in %.3fs (%.2fM entries/s)%n", journal.size(), games, seconds, journal.size() / seconds / 1e6);
+	}
+
+	private static String summary(Board board) {
+		return board.getCols() + " x " + board.getRows() + ", " + board.getMineCount() + " mines, seed " + board.getSeed() + ": "
+				+ (board.isSolved() ? "solved" : board.isDead() ? "dead" : "unfinished") + " with " + board.getCellsOpened() + " cells opened";
+	}
+
+	public ReplayViewer(Journal journal) {
+		super("Replay");
+		this.journal = journal;
+		history = History.replay(journal);
+		Icons.preload();
+		setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+		slider = new JSlider(0, journal.size(), 0);
+		slider.setFocusable(false);
+		slider.addChangeListener(e -> {
+			if (!moving)
+				go(slider.getValue());
+		});
+		scrollPane = new JScrollPane();
+		scrollPane.setPreferredSize(new Dimension(800, 600));
+		scrollPane.setFocusable(false);
+		scrollPane.getViewport().setBackground(Color.black);
+		add(scrollPane, BorderLayout.CENTER);
+		add(slider, BorderLayout.SOUTH);
+
+		addKeyListener(new KeyAdapter() {
+			@Override
+			public void keyPressed(KeyEvent e) {
+				switch (e.getKeyCode()) {
+				case KeyEvent.VK_RIGHT:
+					step(1);
+					break;
+				case KeyEvent.VK_LEFT:
+					step(-1);
+					break;
+				case KeyEvent.VK_PAGE_DOWN:
+					step(100);
+					break;
+				case KeyEvent.VK_PAGE_UP:
+					step(-100);
+					break;
+				case KeyEvent.VK_HOME:
+					go(0);
+					break;
+				case KeyEvent.VK_END:
+					go(journal.size());
+					break;
+				case KeyEvent.VK_SPACE:
+					if (player.isRunning())
+						player.stop();
+					else
+						player.start();
+					break;
+				}
+			}
+		});
+		setFocusable(true);
+		pack();
+		go(0);
+	}
+
+	private void step(int by) {
+		go(history.getCursor() + by);
+		if (history.getCursor() >= journal.size())
+			player.stop();
+	}
+
+	//shows the game as it was just before journal entry target
+	private void go(int target) {
+		Board before = history.getBoard();
+		history.playTo(target);
+		Board board = history.getBoard();
+		if (board != null && board != before) { //a new game, so show its board
+			if (panel == null) {
+				panel = new BoardPanel(board);
+				scrollPane.setViewportView(panel);
+			} else {
+				panel.setBoard(board);
+			}
+			panel.fitZoom(scrollPane.getViewport().getWidth(), scrollPane.getViewport().getHeight());
+		}
+		if (panel != null) {
+			int last = history.getCursor() - 1;
+			panel.setHighlight(last >= 0 && Journal.isMove(journal.type(last)) && journal.arg(last) >= 0 && board != null ? journal.arg(last) : -1); //marks the cell of the last move
+			panel.repaint();
+		}
+		moving = true;
+		slider.setValue(history.getCursor());
+		moving = false;
+		int cursor = history.getCursor();
+		setTitle("Replay - entry " + cursor + " of " + journal.size() + (cursor > 0 ? " - last: " + journal.describe(cursor - 1) : "")
+				+ (board == null ? "" : " - " + (board.isSolved() ? "SOLVED" : board.isDead() ? "DEAD" : "Mines left: " + board.getMinesLeft())));
+	}
+}
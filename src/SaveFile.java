@@ -0,0 +1,151 @@
+/**
+ * Description: Saved games
+ * A game saved to disk, which stays open so the game can keep being played straight out of the file. The cells are mapped into
+ * memory rather than read in, so even a board of a couple of gigabytes never takes up heap space, and checkpointing a running
+ * game only writes the pages of the file that actually changed since the last checkpoint.
+ *
+ * This makes the file a live autosave: every move lands in the mapped cells straight away, and the operating system may write
+ * them out at any time, while the header is only rewritten by checkpoint. The header's counts can therefore lag behind the
+ * cells, so open() works them out from the cells again rather than trusting it.
+ *
+ * File layout (version 1, big endian):
+ *   0  int   magic, "JMSW"
+ *   4  int   version
+ *   8  int   columns
+ *   12 int   rows
+ *   16 int   mines
+ *   20 int   mines left (mines minus flags), as of the last checkpoint
+ *   24 int   cells opened, as of the last checkpoint
+ *   28 int   state bits (generated, pregenerated, dead, solved - see Board.STATE_*), as of the last checkpoint
+ *   32 long  seed
+ *   40 int   time played, in whole seconds
+ *   44 int   difficulty (the menu option the game was started from, 1 - 4)
+ *   48 long  time played, in milliseconds. 0 in saves from before it was added, which only have the seconds
+ *   56-63    reserved, always 0
+ *   64       one byte per cell, row by row, packed the same way Board does it: the number in the low 4 bits, then the mine,
+ *            revealed and flag bits. this holds both the solution and what the player has done so far
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+public class SaveFile implements Closeable {
+	public static final int MAGIC = 0x4A4D5357, VERSION = 1;
+	private static final int HEADER_SIZE = 64;
+	private static final int COLS = 8, ROWS = 12, MINES = 16, MINES_LEFT = 20, OPENED = 24, STATE = 28, SEED = 32, TIME = 40, DIFFICULTY = 44, TIME_MILLIS = 48; //header offsets
+
+	private final Path path; //where the save is
+	private final FileChannel channel; //the open file
+	private final MappedByteBuffer header, cells; //the header and the cells, mapped straight from the file
+	private final Board board; //plays on cells, so every move lands in the file's pages right away
+	private long time; //milliseconds played, as of the last checkpoint
+	private int difficulty;
+
+	private SaveFile(Path path, FileChannel channel, MappedByteBuffer header, MappedByteBuffer cells, Board board, long time, int difficulty) {
+		this.path = path;
+		this.channel = channel;
+		this.header = header;
+		this.cells = cells;
+		this.board = board;
+		this.time = time;
+		this.difficulty = difficulty;
+	}
+
+	//saves board to path (replacing whatever was there) and returns the save, with a copy of the game that plays out of the file.
+	//board itself is left alone, and further moves should be made on getBoard()
+	public static SaveFile create(Path path, Board board, long time, int difficulty) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			MappedByteBuffer cells = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, board.size()); //makes the file big enough too
+			board.copyCells(cells);
+			Board mapped = new Board(board.getCols(), board.getRows(), board.getMineCount(), board.getSeed(), cells);
+			mapped.restoreState(board.getMinesLeft(), board.getCellsOpened(), board.getState());
+			SaveFile save = new SaveFile(path, channel, header, cells, mapped, time, difficulty);
+			save.checkpoint(time, difficulty);
+			return save;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	//opens a save made by create. the game picks up wherever the cells in the file got to, which may be past the last checkpoint
+	public static SaveFile open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			if (channel.size() < HEADER_SIZE)
+				throw new IOException(path + " is not a minesweeper save");
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			if (header.getInt(0) != MAGIC)
+				throw new IOException(path + " is not a minesweeper save");
+			if (header.getInt(4) != VERSION)
+				throw new IOException(path + " was saved by a different version (" + header.getInt(4) + ", expected " + VERSION + ")");
+			int cols = header.getInt(COLS), rows = header.getInt(ROWS);
+			if (cols <= 0 || rows <= 0 || (long) cols * rows > Board.MAX_CELLS || channel.size() != HEADER_SIZE + (long) cols * rows)
+				throw new IOException(path + " is damaged: a " + cols + " x " + rows + " board doesn't match the file size of " + channel.size());
+			MappedByteBuffer cells = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, (long) cols * rows);
+			Board board;
+			try {
+				board = new Board(cols, rows, header.getInt(MINES), header.getLong(SEED), cells);
+			} catch (IllegalArgumentException e) {
+				throw new IOException(path + " is damaged: " + e.getMessage(), e);
+			}
+			board.restoreState(header.getInt(MINES_LEFT), header.getInt(OPENED), header.getInt(STATE));
+			board.countFromCells(); //moves made after the last checkpoint may already be in the cells
+			long time = header.getLong(TIME_MILLIS);
+			if (time == 0)
+				time = header.getInt(TIME) * 1000L;
+			return new SaveFile(path, channel, header, cells, board, time, header.getInt(DIFFICULTY));
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public Board getBoard() {
+		return board;
+	}
+
+	public long getTime() { //in milliseconds
+		return time;
+	}
+
+	public int getDifficulty() {
+		return difficulty;
+	}
+
+	//makes sure the save matches the game as it is now. the cells are already in the file's pages, so this only has to flush the
+	//dirty ones to disk and then rewrite the header. the cells can reach the disk before this too, which is why open() doesn't rely on the header's counts
+	public void checkpoint(long time, int difficulty) throws IOException { //time in milliseconds
+		this.time = time;
+		this.difficulty = difficulty;
+		cells.force();
+		header.putInt(0, MAGIC);
+		header.putInt(4, VERSION);
+		header.putInt(COLS, board.getCols());
+		header.putInt(ROWS, board.getRows());
+		header.putInt(MINES, board.getMineCount());
+		header.putInt(MINES_LEFT, board.getMinesLeft());
+		header.putInt(OPENED, board.getCellsOpened());
+		header.putInt(STATE, board.getState());
+		header.putLong(SEED, board.getSeed());
+		header.putInt(TIME, (int) Math.min(Integer.MAX_VALUE, time / 1000)); //still written, so older versions can open the save
+		header.putLong(TIME_MILLIS, time);
+		header.putInt(DIFFICULTY, difficulty);
+		header.force();
+	}
+
+	//closes the file. the board can still be read and played afterwards, since the mapping lasts until it is garbage collected,
+	//but nothing done to it from then on is saved
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,255 @@
+/**
+ * Description: Headless simulation runner
+ * Plays a large amount of games per board configuration with no display, spread over every core, and reports the win rate,
+ * clicks per game, 3BV (the least amount of clicks needed to clear the board) and how many games were played per second.
+ * Every game's board and player choices come from seeds derived from one root seed, so the same arguments always give the same
+ * results (only the timings change).
+ *
+ * Results are written out as they come in, either as CSV or as JSON lines, so runs of millions of games don't need to keep
+ * anything in memory. Usage:
+ *   java SimulationRunner [--games n] [--seed s] [--player random|solver|classname] [--threads n] [--format csv|json] [--out file] [--detail] config...
+ * where every config is a preset (easy, medium, hard), colsxrows:mines or colsxrows@density, e.g. "hard 30x16:99 100x100@0.15".
+ * --detail writes a line for every game as well as a summary for every config. In CSV the first column tells the two kinds of
+ * line apart, and each kind has its own header line.
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class SimulationRunner {
+	static final String USAGE = "Usage: java SimulationRunner [--games n] [--seed s] [--player random|solver|classname] [--threads n] [--format csv|json] [--out file] [--detail] config...";
+	private static final int BATCH = 256; //games per task handed to the worker threads
+
+	private final int games; //games per config
+	private final long rootSeed; //every game's seed comes from this
+	private final Player player; //who plays the games
+	private final ExecutorService executor; //where the games get played
+	private final int threads; //how many workers the executor has
+	private final boolean json, detail; //whether to write JSON lines instead of CSV, and whether to write a line per game
+	private final PrintWriter out; //where results go
+
+	//a board size and mine count to play
+	public static class Config {
+		public final String name;
+		public final int cols, rows, mines;
+
+		public Config(String name, int cols, int rows, int mines) {
+			if (mines <= 0 || mines > Board.maxMines(cols, rows))
+				throw new IllegalArgumentException("Invalid amount of mines for " + name + ": " + mines);
+			this.name = name;
+			this.cols = cols;
+			this.rows = rows;
+			this.mines = mines;
+		}
+
+		//a preset (same as in Minesweeper.sizeSet), colsxrows:mines or colsxrows@density
+		public static Config parse(String text) {
+			switch (text.toLowerCase()) {
+			case "easy":
+				return new Config("easy", 9, 9, 12);
+			case "medium":
+				return new Config("medium", 16, 16, 50);
+			case "hard":
+				return new Config("hard", 32, 16, 100);
+			}
+			try {
+				int x = text.indexOf('x'), split = Math.max(text.indexOf(':'), text.indexOf('@'));
+				int cols = Integer.parseInt(text.substring(0, x)), rows = Integer.parseInt(text.substring(x + 1, split));
+				int mines = text.charAt(split) == ':' ? Integer.parseInt(text.substring(split + 1)) : (int) Math.round(Double.parseDouble(text.substring(split + 1)) * cols * rows);
+				return new Config(text, cols, rows, mines);
+			} catch (RuntimeException e) {
+				throw new IllegalArgumentException("Can't read config: " + text + " (expected easy, medium, hard, colsxrows:mines or colsxrows@density)", e);
+			}
+		}
+	}
+
+	//how one game went
+	private static class Game {
+		long seed;
+		boolean won;
+		int clicks, bv;
+	}
+
+	public SimulationRunner(int games, long rootSeed, Player player, int threads, boolean json, boolean detail, Writer out) {
+		this.games = games;
+		this.rootSeed = rootSeed;
+		this.player = player;
+		this.threads = threads;
+		this.json = json;
+		this.detail = detail;
+		this.out = new PrintWriter(out);
+		executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "Simulation");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		SimulationRunner runner;
+		List<Config> configs;
+		try {
+			configs = new ArrayList<>();
+			runner = parse(args, configs);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+			return;
+		}
+		try {
+			runner.run(configs);
+		} finally {
+			runner.close();
+		}
+	}
+
+	//makes the runner the arguments ask for, and adds the configs to play to configs
+	private static SimulationRunner parse(String[] args, List<Config> configs) throws IOException {
+		int games = 10000, threads = Runtime.getRuntime().availableProcessors();
+		long seed = System.nanoTime();
+		String player = "solver", format = "csv", file = null;
+		boolean detail = false;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--games":
+				games = Integer.parseInt(value(args, ++i));
+				break;
+			case "--seed":
+				seed = Long.parseLong(value(args, ++i));
+				break;
+			case "--player":
+				player = value(args, ++i);
+				break;
+			case "--threads":
+				threads = Integer.parseInt(value(args, ++i));
+				break;
+			case "--format":
+				format = value(args, ++i);
+				break;
+			case "--out":
+				file = value(args, ++i);
+				break;
+			case "--detail":
+				detail = true;
+				break;
+			default:
+				configs.add(Config.parse(args[i]));
+			}
+		}
+		if (configs.isEmpty())
+			configs.addAll(List.of(Config.parse("easy"), Config.parse("medium"), Config.parse("hard")));
+		if (!format.equals("csv") && !format.equals("json"))
+			throw new IllegalArgumentException("Unknown format: " + format);
+
+		Player chosen = Player.forName(player);
+		Writer out = file == null ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8) : new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8));
+		return new SimulationRunner(games, seed, chosen, threads, format.equals("json"), detail, out);
+	}
+
+	private static String value(String[] args, int i) {
+		if (i >= args.length)
+			throw new IllegalArgumentException(args[i - 1] + " needs a value");
+		return args[i];
+	}
+
+	public void run(List<Config> configs) throws InterruptedException {
+		if (!json) { //the first column says which kind of line it is, and each kind gets its own header
+			if (detail)
+				out.println("type,config,game,seed,won,clicks,3bv");
+			out.println("type,config,cols,rows,mines,player,games,wins,win_rate,mean_clicks,mean_3bv,games_per_sec,seconds");
+		}
+		for (int i = 0; i < configs.size(); i++) {
+			run(configs.get(i), Board.deriveSeed(rootSeed, i));
+		}
+		out.flush();
+	}
+
+	private void run(Config config, long configSeed) throws InterruptedException {
+		long start = System.nanoTime(), wins = 0, clicks = 0, bv = 0;
+		int batches = (games + BATCH - 1) / BATCH;
+
+		//batches are handed out a few at a time and written in order, so the output is the same on any amount of threads and only a few batches are held at once
+		ArrayDeque<Future<Game[]>> running = new ArrayDeque<>();
+		int submitted = 0;
+		for (int done = 0; done < batches; done++) {
+			while (submitted < batches && running.size() < threads * 2) {
+				int from = submitted * BATCH, to = Math.min(games, from + BATCH);
+				running.add(executor.submit(() -> play(config, configSeed, from, to)));
+				submitted++;
+			}
+			Game[] results;
+			try {
+				results = running.poll().get();
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Simulation of " + config.name + " failed", e.getCause());
+			}
+			for (int i = 0; i < results.length; i++) {
+				Game game = results[i];
+				if (game.won)
+					wins++;
+				clicks += game.clicks;
+				bv += game.bv;
+				if (detail)
+					writeGame(config, done * BATCH + i, game);
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		writeSummary(config, wins, (double) clicks / games, (double) bv / games, games / seconds, seconds);
+		out.flush();
+	}
+
+	//plays games from up to to of config. runs on a worker thread
+	private Game[] play(Config config, long configSeed, int from, int to) {
+		Game[] results = new Game[to - from];
+		for (int i = from; i < to; i++) {
+			Game game = new Game();
+			game.seed = Board.deriveSeed(configSeed, i);
+			Board board = new Board(config.cols, config.rows, config.mines, game.seed);
+			game.clicks = player.play(board, new SplittableRandom(game.seed ^ 0x5DEECE66DL)); //the player gets its own stream, apart from the one placing the mines
+			game.won = board.isSolved();
+			game.bv = BoardAnalyzer.analyze(board).threeBV;
+			results[i - from] = game;
+		}
+		return results;
+	}
+
+	private void writeGame(Config config, int index, Game game) {
+		if (json)
+			out.println("{\"type\":\"game\",\"config\":" + quote(config.name) + ",\"game\":" + index + ",\"seed\":" + game.seed + ",\"won\":" + game.won + ",\"clicks\":" + game.clicks + ",\"3bv\":" + game.bv + "}");
+		else
+			out.println("game," + config.name + "," + index + "," + game.seed + "," + game.won + "," + game.clicks + "," + game.bv);
+	}
+
+	private void writeSummary(Config config, long wins, double meanClicks, double meanBV, double gamesPerSecond, double seconds) {
+		double winRate = (double) wins / games;
+		if (json)
+			out.println(String.format(Locale.ROOT, "{\"type\":\"summary\",\"config\":%s,\"cols\":%d,\"rows\":%d,\"mines\":%d,\"player\":%s,\"games\":%d,\"wins\":%d,\"win_rate\":%.6f,\"mean_clicks\":%.3f,\"mean_3bv\":%.3f,\"games_per_sec\":%.1f,\"seconds\":%.3f}",
+					quote(config.name), config.cols, config.rows, config.mines, quote(player.toString()), games, wins, winRate, meanClicks, meanBV, gamesPerSecond, seconds));
+		else
+			out.println(String.format(Locale.ROOT, "summary,%s,%d,%d,%d,%s,%d,%d,%.6f,%.3f,%.3f,%.1f,%.3f", config.name, config.cols, config.rows, config.mines, player, games, wins, winRate, meanClicks, meanBV, gamesPerSecond, seconds));
+	}
+
+	//text as a JSON string, quotes included
+	static String quote(String text) {
+		StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '"' || c == '\\')
+				quoted.append('\\').append(c);
+			else if (c < 0x20)
+				quoted.append(String.format("\\u%04x", (int) c));
+			else
+				quoted.append(c);
+		}
+		return quoted.append('"').toString();
+	}
+
+	public void close() {
+		executor.shutdownNow();
+		out.flush();
+		out.close();
+	}
+}
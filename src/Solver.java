@@ -0,0 +1,506 @@
+/**
+ * Description: Safe move solver
+ * Works out which unopened cells are certainly safe and which are certainly mines, using only what the player can see
+ * (the opened numbers - flags are ignored, since the player might have put them in the wrong place).
+ *
+ * Deductions are tried from cheapest to most expensive: first a number on its own (all of its unknown neighbours are mines,
+ * or all of them are safe), then pairs of numbers whose unknown neighbours are a subset of one another, and finally an exact
+ * enumeration of every way the mines could be placed around each independent group of connected numbers (a frontier component).
+ *
+ * It is incremental: update() is given the cells that were just opened, and only the numbers around those get looked at
+ * again. Anything else has already been squeezed for all it is worth, since what is known about the board only ever grows.
+ */
+
+import java.util.*;
+
+public class Solver {
+	public static final int MAX_ENUMERATION = 20; //components with more unknown cells than this are too big to enumerate, and are left to the simpler rules
+
+	//per cell state bits. the low two bits say what is known about the cell, the others are bookkeeping
+	private static final int UNKNOWN = 0, SAFE = 1, MINE = 2, KNOWN_MASK = 3, QUEUED = 4, TOUCHED = 8, VISITED = 16;
+
+	private final Board board; //the board being solved. only its revealed cells are ever looked at
+	private final byte[] state; //what the solver knows about each cell, using the bits above
+	private final IntList dirty = new IntList(); //numbers that need looking at again
+	private final IntList touched = new IntList(); //numbers looked at since the last enumeration, whose components may need enumerating
+	private final IntList safeQueue = new IntList(); //cells deduced to be safe that might not be opened yet
+	private final IntList mineList = new IntList(); //every cell deduced to be a mine
+	private final IntList scratch = new IntList(); //cells revealed by the solver's own moves
+	private final int[] around = new int[8], aroundOther = new int[8], unknownA = new int[8], unknownB = new int[8]; //scratch space for neighbour lookups
+	private int knownMines; //how many mines have been deduced
+	private int remaining; //mines still missing around the number last passed to unknownAround
+
+	public Solver(Board board) {
+		this.board = board;
+		state = new byte[board.size()];
+		rescan();
+	}
+
+	public Board getBoard() {
+		return board;
+	}
+
+	//starts from scratch, looking at every revealed cell. only needed if the board changed without update() being told about it (e.g. a reset)
+	public void rescan() {
+		Arrays.fill(state, (byte) 0);
+		dirty.clear();
+		touched.clear();
+		safeQueue.clear();
+		mineList.clear();
+		knownMines = 0;
+		for (int i = 0; i < state.length; i++) {
+			if (board.isRevealed(i) && !board.isMine(i)) {
+				state[i] = SAFE;
+				if (board.getCount(i) > 0)
+					markDirty(i);
+			}
+		}
+	}
+
+	//tells the solver which cells were just revealed (e.g. the list filled in by Board.open)
+	public void update(IntList revealed) {
+		for (int i = 0; i < revealed.size(); i++) {
+			int cell = revealed.get(i);
+			if (board.isMine(cell))
+				continue; //game over anyways
+			if ((state[cell] & KNOWN_MASK) != SAFE)
+				setKnown(cell, SAFE);
+			if (board.getCount(cell) > 0)
+				markDirty(cell);
+		}
+	}
+
+	public boolean isCertainlySafe(int index) {
+		return (state[index] & KNOWN_MASK) == SAFE;
+	}
+
+	public boolean isCertainlyMine(int index) {
+		return (state[index] & KNOWN_MASK) == MINE;
+	}
+
+	public int getKnownMines() {
+		return knownMines;
+	}
+
+	//a cell that is certainly safe but still unopened, or -1 if there isn't one and the player would have to guess
+	public int nextSafeMove() {
+		while (true) {
+			while (!safeQueue.isEmpty()) {
+				int cell = safeQueue.get(safeQueue.size() - 1);
+				if (!board.isRevealed(cell))
+					return cell;
+				safeQueue.pop();
+			}
+			if (!solve())
+				return -1;
+		}
+	}
+
+	//puts a flag on every cell that is certainly a mine (and isn't flagged yet). flagged cells are added to changed if it isn't null. returns how many flags were placed
+	public int flagCertainMines(IntList changed) {
+		while (solve()) {
+			//keep going until there is nothing more to deduce
+		}
+		int placed = 0;
+		for (int i = 0; i < mineList.size(); i++) {
+			int cell = mineList.get(i);
+			if (!board.isFlagged(cell) && !board.isRevealed(cell) && board.flag(cell)) {
+				placed++;
+				if (changed != null)
+					changed.add(cell);
+			}
+		}
+		return placed;
+	}
+
+	//keeps opening certainly safe cells until the game is over or a guess is needed. every revealed cell is added to changed if it isn't null. returns how many moves were made
+	public int autoPlay(IntList changed) {
+		int moves = 0;
+		while (!board.isOver()) {
+			int cell = nextSafeMove();
+			if (cell < 0)
+				break;
+			if (board.isFlagged(cell)) {
+				board.flag(cell); //the player flagged a safe cell, so take the flag off first
+				if (changed != null)
+					changed.add(cell);
+			}
+			scratch.clear();
+			board.open(cell, scratch);
+			update(scratch);
+			if (changed != null) {
+				for (int i = 0; i < scratch.size(); i++) {
+					changed.add(scratch.get(i));
+				}
+			}
+			moves++;
+		}
+		return moves;
+	}
+
+	private void markDirty(int cell) {
+		if ((state[cell] & QUEUED) == 0) {
+			state[cell] |= QUEUED;
+			dirty.add(cell);
+		}
+	}
+
+	private void setKnown(int cell, int known) {
+		state[cell] = (byte) ((state[cell] & ~KNOWN_MASK) | known);
+		if (known == MINE) {
+			mineList.add(cell);
+			knownMines++;
+		} else if (!board.isRevealed(cell)) {
+			safeQueue.add(cell);
+		}
+		int n = board.neighbours(cell, around);
+		for (int i = 0; i < n; i++) {
+			if (isNumber(around[i]))
+				markDirty(around[i]);
+		}
+	}
+
+	private boolean isNumber(int cell) {
+		return board.isRevealed(cell) && !board.isMine(cell) && board.getCount(cell) > 0;
+	}
+
+	//fills unknown with the unknown neighbours of a number and returns how many there are. the amount of mines still to be found among them is left in remaining
+	private int unknownAround(int cell, int[] unknown, int[] neighbours) {
+		int n = board.neighbours(cell, neighbours), u = 0, mines = 0;
+		for (int i = 0; i < n; i++) {
+			int known = state[neighbours[i]] & KNOWN_MASK;
+			if (known == UNKNOWN)
+				unknown[u++] = neighbours[i];
+			else if (known == MINE)
+				mines++;
+		}
+		remaining = board.getCount(cell) - mines;
+		return u;
+	}
+
+	//runs the deductions on everything that changed. returns whether anything new was found
+	public boolean solve() {
+		boolean progress = false;
+		while (true) {
+			while (!dirty.isEmpty()) {
+				int cell = dirty.pop();
+				state[cell] &= ~QUEUED;
+				if ((state[cell] & TOUCHED) == 0) {
+					state[cell] |= TOUCHED;
+					touched.add(cell);
+				}
+				progress |= singleRule(cell) || subsetRule(cell);
+			}
+			if (!enumerateTouched())
+				return progress;
+			progress = true;
+		}
+	}
+
+	//a number whose mines are all accounted for has only safe cells left around it, and a number with exactly as many unknown neighbours as missing mines has only mines left
+	private boolean singleRule(int cell) {
+		int u = unknownAround(cell, unknownA, around);
+		if (u == 0)
+			return false;
+		if (remaining == 0) {
+			for (int i = 0; i < u; i++) {
+				setKnown(unknownA[i], SAFE);
+			}
+			return true;
+		}
+		if (remaining == u) {
+			for (int i = 0; i < u; i++) {
+				setKnown(unknownA[i], MINE);
+			}
+			return true;
+		}
+		return false;
+	}
+
+	//if the unknown cells around one number are all also around another, then the other's extra cells hold exactly the difference in their missing mines
+	private boolean subsetRule(int cell) {
+		int uA = unknownAround(cell, unknownA, aroundOther), rA = remaining;
+		if (uA == 0)
+			return false;
+		int x = cell % board.getCols(), y = cell / board.getCols();
+		for (int dy = -2; dy <= 2; dy++) {
+			for (int dx = -2; dx <= 2; dx++) {
+				int ox = x + dx, oy = y + dy;
+				if ((dx == 0 && dy == 0) || ox < 0 || oy < 0 || ox >= board.getCols() || oy >= board.getRows())
+					continue;
+				int other = oy * board.getCols() + ox;
+				if (!isNumber(other))
+					continue;
+				int uB = unknownAround(other, unknownB, around), rB = remaining;
+				if (uB == 0)
+					continue;
+				if (uB > uA && contains(unknownB, uB, unknownA, uA) && apply(unknownB, uB, unknownA, uA, rB - rA))
+					return true;
+				if (uA > uB && contains(unknownA, uA, unknownB, uB) && apply(unknownA, uA, unknownB, uB, rA - rB))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean contains(int[] outer, int outerSize, int[] inner, int innerSize) { //whether every cell of inner is in outer
+		for (int i = 0; i < innerSize; i++) {
+			boolean found = false;
+			for (int j = 0; j < outerSize && !found; j++) {
+				found = outer[j] == inner[i];
+			}
+			if (!found)
+				return false;
+		}
+		return true;
+	}
+
+	//the cells in outer but not inner hold mines mines. if that settles them, mark them and return true
+	private boolean apply(int[] outer, int outerSize, int[] inner, int innerSize, int mines) {
+		int extra = outerSize - innerSize;
+		if (mines != 0 && mines != extra)
+			return false;
+		int[] cells = new int[extra];
+		for (int i = 0, e = 0; i < outerSize; i++) {
+			if (!containsOne(inner, innerSize, outer[i]))
+				cells[e++] = outer[i];
+		}
+		for (int cell : cells) {
+			setKnown(cell, mines == 0 ? SAFE : MINE);
+		}
+		return true;
+	}
+
+	private static boolean containsOne(int[] cells, int size, int cell) {
+		for (int i = 0; i < size; i++) {
+			if (cells[i] == cell)
+				return true;
+		}
+		return false;
+	}
+
+	//enumerates every frontier component that contains a number touched since the last enumeration. returns whether anything new was found
+	private boolean enumerateTouched() {
+		boolean progress = false;
+		IntList visited = new IntList();
+		for (int t = 0; t < touched.size(); t++) {
+			int start = touched.get(t);
+			if ((state[start] & VISITED) != 0 || unknownAround(start, unknownA, around) == 0)
+				continue;
+			Component component = Component.collect(this, start, visited);
+			if (component != null)
+				progress |= component.enumerate(this);
+		}
+		for (int t = 0; t < touched.size(); t++) {
+			state[touched.get(t)] &= ~(TOUCHED | VISITED);
+		}
+		for (int i = 0; i < visited.size(); i++) {
+			state[visited.get(i)] &= ~VISITED;
+		}
+		touched.clear();
+		return progress;
+	}
+
+	//remaining mines on the whole board that haven't been deduced yet
+	int undeducedMines() {
+		return board.getMineCount() - knownMines;
+	}
+
+	/**
+	 * One frontier component: a group of numbers, and the unknown cells around them, where every number shares an unknown cell
+	 * with another one in the group. What happens in one component has no effect on any other (apart from the total mine count).
+	 */
+	static class Component {
+		final int[] cells; //the unknown cells
+		final int[][] constraints; //for each number, the indices (into cells) of its unknown neighbours
+		final int[] remaining; //for each number, how many mines are still missing around it
+
+		Component(int[] cells, int[][] constraints, int[] remaining) {
+			this.cells = cells;
+			this.constraints = constraints;
+			this.remaining = remaining;
+		}
+
+		//walks out from start (a touched number with unknown neighbours), collecting connected numbers and unknown cells. every cell reached is marked VISITED and, unless it is a touched number, added to visited so the caller can clear them.
+		//gives up and returns null as soon as the component has more than MAX_ENUMERATION unknown cells
+		static Component collect(Solver solver, int start, IntList visited) {
+			Board board = solver.board;
+			byte[] state = solver.state;
+			IntList numbers = new IntList(), cells = new IntList(), queue = new IntList();
+			int[] neighbours = new int[8], unknown = new int[8];
+			queue.add(start);
+			state[start] |= VISITED;
+			while (!queue.isEmpty()) {
+				int number = queue.pop();
+				numbers.add(number);
+				int u = solver.unknownAround(number, unknown, neighbours);
+				for (int i = 0; i < u; i++) {
+					int cell = unknown[i];
+					if ((state[cell] & VISITED) != 0)
+						continue;
+					state[cell] |= VISITED;
+					visited.add(cell);
+					cells.add(cell);
+					int n = board.neighbours(cell, neighbours);
+					for (int j = 0; j < n; j++) {
+						int next = neighbours[j];
+						if ((state[next] & VISITED) == 0 && solver.isNumber(next)) {
+							state[next] |= VISITED;
+							if ((state[next] & TOUCHED) == 0)
+								visited.add(next); //touched numbers get cleared by enumerateTouched anyways
+							queue.add(next);
+						}
+					}
+				}
+				if (cells.size() > MAX_ENUMERATION)
+					return null;
+			}
+
+			int[] cellArray = cells.toArray();
+			int[][] constraints = new int[numbers.size()][];
+			int[] remaining = new int[numbers.size()];
+			for (int k = 0; k < numbers.size(); k++) {
+				int u = solver.unknownAround(numbers.get(k), unknown, neighbours);
+				remaining[k] = solver.remaining;
+				constraints[k] = new int[u];
+				for (int i = 0; i < u; i++) {
+					constraints[k][i] = indexOf(cellArray, unknown[i]);
+				}
+			}
+			return new Component(cellArray, constraints, remaining);
+		}
+
+		private static int indexOf(int[] cells, int cell) {
+			for (int i = 0; i < cells.length; i++) {
+				if (cells[i] == cell)
+					return i;
+			}
+			throw new IllegalStateException("Cell " + cell + " is not in the component");
+		}
+
+		//tries every mine placement that satisfies all the numbers. cells that are a mine in every placement are mines, and cells that are never one are safe
+		boolean enumerate(Solver solver) {
+			Enumeration e = new Enumeration(this, solver.undeducedMines());
+			e.run(0);
+			if (e.solutions == 0)
+				return false; //the numbers contradict each other, which can only happen if the board changed under us
+			boolean progress = false;
+			for (int i = 0; i < cells.length; i++) {
+				if (!e.everMine[i]) {
+					solver.setKnown(cells[i], SAFE);
+					progress = true;
+				} else if (!e.everSafe[i]) {
+					solver.setKnown(cells[i], MINE);
+					progress = true;
+				}
+			}
+			return progress;
+		}
+	}
+
+	//backtracking search over the mine placements of one component
+	static class Enumeration {
+		final Component component;
+		final int maxMines; //no placement can use more mines than are left on the board
+		final int[][] cellConstraints; //for each cell, the constraints it appears in
+		final int[] placed, open; //for each constraint, mines placed so far and cells not decided yet
+		final boolean[] assignment, everMine, everSafe;
+		final long[] mineCounts; //how many placements of each size (amount of mines) there are, and for callers who want weights
+		long solutions;
+		int mines; //mines in the current partial placement
+		private int undecided; //cells that have been both a mine and safe in some placement - once every cell is, nothing can be deduced
+
+		Enumeration(Component component, int maxMines) {
+			this.component = component;
+			this.maxMines = maxMines;
+			int cells = component.cells.length, constraints = component.constraints.length;
+			int[] counts = new int[cells];
+			for (int[] constraint : component.constraints) {
+				for (int cell : constraint) {
+					counts[cell]++;
+				}
+			}
+			cellConstraints = new int[cells][];
+			for (int i = 0; i < cells; i++) {
+				cellConstraints[i] = new int[counts[i]];
+				counts[i] = 0;
+			}
+			placed = new int[constraints];
+			open = new int[constraints];
+			for (int k = 0; k < constraints; k++) {
+				open[k] = component.constraints[k].length;
+				for (int cell : component.constraints[k]) {
+					cellConstraints[cell][counts[cell]++] = k;
+				}
+			}
+			assignment = new boolean[cells];
+			everMine = new boolean[cells];
+			everSafe = new boolean[cells];
+			mineCounts = new long[cells + 1];
+		}
+
+		boolean stopEarly() { //the safe move search doesn't care about exact counts, only about whether anything is certain
+			return undecided == assignment.length;
+		}
+
+		void run(int cell) {
+			if (stopEarly())
+				return;
+			if (cell == assignment.length) {
+				found();
+				return;
+			}
+			for (int value = 0; value <= 1; value++) {
+				if (!allows(cell, value))
+					continue;
+				place(cell, value);
+				run(cell + 1);
+				unplace(cell, value);
+			}
+		}
+
+		//called with every complete placement, which is in assignment
+		void found() {
+			solutions++;
+			mineCounts[mines]++;
+			for (int i = 0; i < assignment.length; i++) {
+				boolean wasUndecided = everMine[i] && everSafe[i];
+				if (assignment[i])
+					everMine[i] = true;
+				else
+					everSafe[i] = true;
+				if (!wasUndecided && everMine[i] && everSafe[i])
+					undecided++;
+			}
+		}
+
+		//whether cell can be a mine (value 1) or safe (value 0) without breaking a number or running out of mines
+		boolean allows(int cell, int value) {
+			if (value == 1 && mines >= maxMines)
+				return false;
+			for (int k : cellConstraints[cell]) {
+				int p = placed[k] + value, o = open[k] - 1, r = component.remaining[k];
+				if (p > r || p + o < r)
+					return false;
+			}
+			return true;
+		}
+
+		void place(int cell, int value) {
+			for (int k : cellConstraints[cell]) {
+				placed[k] += value;
+				open[k]--;
+			}
+			assignment[cell] = value == 1;
+			mines += value;
+		}
+
+		void unplace(int cell, int value) {
+			mines -= value;
+			for (int k : cellConstraints[cell]) {
+				placed[k] -= value;
+				open[k]++;
+			}
+		}
+	}
+}
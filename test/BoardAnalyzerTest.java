@@ -0,0 +1,85 @@
+/**
+ * Description: BoardAnalyzer tests
+ * The one pass, row at a time analysis has to count the same openings, isolated numbers and mine clusters as flood filling the
+ * whole board, on boards of every shape and density.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class BoardAnalyzerTest {
+	private static boolean zero(Board board, int cell) {
+		return !board.isMine(cell) && board.getCount(cell) == 0;
+	}
+
+	//how many areas of cells that match are there, and how big is the biggest, joining cells that touch (diagonals count)
+	private static int[] areas(Board board, boolean mines) {
+		boolean[] seen = new boolean[board.size()];
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		int areas = 0, largest = 0;
+		for (int start = 0; start < board.size(); start++) {
+			if (seen[start] || (mines ? !board.isMine(start) : !zero(board, start)))
+				continue;
+			areas++;
+			int size = 0;
+			seen[start] = true;
+			queue.add(start);
+			while (!queue.isEmpty()) {
+				int cell = queue.poll();
+				size++;
+				for (int next : BoardTest.neighbours(board, cell)) {
+					if (!seen[next] && (mines ? board.isMine(next) : zero(board, next))) {
+						seen[next] = true;
+						queue.add(next);
+					}
+				}
+			}
+			largest = Math.max(largest, size);
+		}
+		return new int[] {areas, largest};
+	}
+
+	private static int isolatedNumbers(Board board) {
+		int isolated = 0;
+		for (int cell = 0; cell < board.size(); cell++) {
+			if (board.isMine(cell) || zero(board, cell))
+				continue;
+			boolean nextToZero = false;
+			for (int next : BoardTest.neighbours(board, cell)) {
+				nextToZero |= zero(board, next);
+			}
+			if (!nextToZero)
+				isolated++;
+		}
+		return isolated;
+	}
+
+	@Test
+	void matchesFloodFill() {
+		Random random = new Random(4);
+		for (int trial = 0; trial < 300; trial++) {
+			int cols = 4 + random.nextInt(40), rows = 4 + random.nextInt(40);
+			int mines = 1 + random.nextInt(Board.maxMines(cols, rows));
+			Board board = new Board(cols, rows, mines, random.nextLong());
+			board.open(random.nextInt(board.size()));
+			BoardAnalyzer.Result result = BoardAnalyzer.analyze(board);
+			String what = cols + " x " + rows + " with " + mines + " mines, trial " + trial;
+			int[] openings = areas(board, false), clusters = areas(board, true);
+			assertEquals(openings[0], result.openings, "openings on " + what);
+			assertEquals(isolatedNumbers(board), result.isolatedNumbers, "isolated numbers on " + what);
+			assertEquals(result.openings + result.isolatedNumbers, result.threeBV, what);
+			assertEquals(clusters[0], result.mineClusters, "mine clusters on " + what);
+			assertEquals(clusters[1], result.largestCluster, "largest cluster on " + what);
+		}
+	}
+
+	@Test
+	void needsMines() {
+		assertThrows(IllegalStateException.class, () -> BoardAnalyzer.analyze(new Board(9, 9, 10, 1)));
+		Board board = new Board(9, 9, 10, 1);
+		board.pregenerate();
+		assertEquals(areas(board, false)[0], BoardAnalyzer.analyze(board).openings);
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * Description: Board tests
+ * Checks the flood fill behind open() against a plain breadth first search, and that pregenerated boards end up as good as
+ * ones generated on the first click, wherever that click is.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class BoardTest {
+	//worked out from the coordinates rather than with Board.neighbours, so the tests don't lean on the code they test
+	static int[] neighbours(Board board, int index) {
+		int cols = board.getCols(), rows = board.getRows(), x = index % cols, y = index / cols;
+		IntList cells = new IntList();
+		for (int dy = -1; dy <= 1; dy++) {
+			for (int dx = -1; dx <= 1; dx++) {
+				int nx = x + dx, ny = y + dy;
+				if ((dx != 0 || dy != 0) && nx >= 0 && ny >= 0 && nx < cols && ny < rows)
+					cells.add(ny * cols + nx);
+			}
+		}
+		int[] array = new int[cells.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = cells.get(i);
+		}
+		return array;
+	}
+
+	//the cells opening start should reveal: start itself, and if it's empty everything reachable through empty cells, stopping at flags and opened cells
+	private static Set<Integer> breadthFirst(Board board, int start) {
+		Set<Integer> opened = new HashSet<>();
+		if (board.isRevealed(start) || board.isFlagged(start))
+			return opened;
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		opened.add(start);
+		queue.add(start);
+		while (!queue.isEmpty()) {
+			int cell = queue.poll();
+			if (board.isMine(cell) || board.getCount(cell) != 0)
+				continue;
+			for (int neighbour : neighbours(board, cell)) {
+				if (!board.isRevealed(neighbour) && !board.isFlagged(neighbour) && opened.add(neighbour))
+					queue.add(neighbour);
+			}
+		}
+		return opened;
+	}
+
+	private static void checkOpen(Board board, int cell, String what) {
+		Set<Integer> expected = breadthFirst(board, cell);
+		int before = board.getCellsOpened();
+		boolean[] shown = new boolean[board.size()];
+		for (int i = 0; i < shown.length; i++) {
+			shown[i] = board.isRevealed(i);
+		}
+		IntList revealed = new IntList();
+		board.open(cell, revealed);
+		Set<Integer> actual = new HashSet<>();
+		for (int i = 0; i < revealed.size(); i++) {
+			assertTrue(actual.add(revealed.get(i)), what + ": " + revealed.get(i) + " was reported twice");
+		}
+		assertEquals(expected, actual, what);
+		for (int i = 0; i < board.size(); i++) {
+			assertEquals(shown[i] || expected.contains(i), board.isRevealed(i), what + ": cell " + i);
+		}
+		if (!board.isDead())
+			assertEquals(before + expected.size(), board.getCellsOpened(), what);
+	}
+
+	@Test
+	void floodFillMatchesBreadthFirstSearch() {
+		Random random = new Random(3);
+		int[][] sizes = {{9, 9}, {30, 16}, {1, 40}, {40, 1}, {4, 4}, {3, 5}, {64, 64}, {200, 3}, {97, 101}};
+		for (int[] size : sizes) {
+			int cols = size[0], rows = size[1], cells = cols * rows;
+			for (int game = 0; game < 20; game++) {
+				int mines = 1 + random.nextInt(Math.min(Board.maxMines(cols, rows), cells / 4));
+				Board board = new Board(cols, rows, mines, random.nextLong());
+				int first = random.nextInt(cells);
+				board.generate(first);
+				String what = cols + " x " + rows + " with " + mines + " mines, game " + game;
+				for (int flags = random.nextInt(4); flags > 0; flags--) {
+					board.flag(random.nextInt(cells)); //cascades have to go around these
+				}
+				if (!board.isFlagged(first))
+					checkOpen(board, first, what + ", first click");
+				for (int click = 0; click < 10 && !board.isOver(); click++) {
+					int cell = random.nextInt(cells);
+					if (!board.isRevealed(cell) && !board.isFlagged(cell) && !board.isMine(cell))
+						checkOpen(board, cell, what + ", click " + click);
+				}
+			}
+		}
+	}
+
+	@Test
+	void firstClickIsAlwaysEmpty() {
+		Random random = new Random(4);
+		for (int game = 0; game < 500; game++) {
+			int cols = 3 + random.nextInt(30), rows = 3 + random.nextInt(30);
+			Board board = new Board(cols, rows, 1 + random.nextInt(Board.maxMines(cols, rows)), random.nextLong());
+			if (random.nextBoolean() && Board.canPregenerate(cols, rows, board.getMineCount()))
+				board.pregenerate();
+			int click = random.nextInt(board.size());
+			board.open(click);
+			assertFalse(board.isMine(click), "game " + game);
+			assertEquals(0, board.getCount(click), "game " + game);
+		}
+	}
+
+	@Test
+	void shiftedBoardsHaveTheRightCounts() {
+		Random random = new Random(6);
+		for (int game = 0; game < 300; game++) {
+			int cols = 3 + random.nextInt(40), rows = 3 + random.nextInt(40);
+			int mines = 1 + random.nextInt(Board.maxMines(cols, rows));
+			Board board = new Board(cols, rows, mines, random.nextLong());
+			board.pregenerate();
+			board.open(random.nextInt(board.size()));
+			int found = 0;
+			for (int cell = 0; cell < board.size(); cell++) {
+				int count = 0;
+				for (int neighbour : neighbours(board, cell)) {
+					if (board.isMine(neighbour))
+						count++;
+				}
+				assertEquals(count, board.getCount(cell), "cell " + cell + " of game " + game);
+				if (board.isMine(cell))
+					found++;
+			}
+			assertEquals(mines, found, "game " + game);
+		}
+	}
+
+	//a shift onto an edge would wrap the safe zone around to the far edge. those cells have to get mines as often as any other
+	@Test
+	void edgeClicksDontClearTheFarEdge() {
+		int cols = 9, rows = 9, mines = 10, games = 2000;
+		double expected = (double) mines / (cols * rows - 9); //chance of any cell outside the safe zone being a mine
+		int[][] clicks = {{0, 4}, {8, 4}, {4, 0}, {4, 8}, {0, 0}, {8, 8}, {0, 8}, {8, 0}};
+		for (int[] click : clicks) {
+			int x = click[0], y = click[1], across = 0, total = 0;
+			for (long seed = 0; seed < games; seed++) {
+				Board board = new Board(cols, rows, mines, seed);
+				board.pregenerate();
+				board.open(y * cols + x);
+				for (int dy = -1; dy <= 1; dy++) {
+					for (int dx = -1; dx <= 1; dx++) {
+						int wx = Math.floorMod(x + dx, cols), wy = Math.floorMod(y + dy, rows);
+						if (wx != x + dx || wy != y + dy) { //only reachable by wrapping around
+							total++;
+							if (board.isMine(wy * cols + wx))
+								across++;
+						}
+					}
+				}
+			}
+			double rate = (double) across / total;
+			assertEquals(expected, rate, expected / 4, "click at " + x + ", " + y);
+		}
+	}
+}
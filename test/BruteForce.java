@@ -0,0 +1,135 @@
+/**
+ * Description: Brute force reference for the tests
+ * Tries every way the mines could be laid out under what the player can see, one layout at a time, so the Solver and the
+ * ProbabilityEngine can be checked against something too simple to be wrong. Only usable on tiny boards.
+ */
+
+import java.util.*;
+
+class BruteForce {
+	private BruteForce() {
+	}
+
+	//the chance each cell is a mine, over every layout of exactly getMineCount() mines that matches the opened numbers. revealed cells get 0
+	static double[] probabilities(Board board) {
+		int n = board.size(), mines = board.getMineCount();
+		int[] unknown = unknown(board);
+		if (mines > unknown.length)
+			throw new IllegalArgumentException("More mines than unopened cells");
+		double[] counts = new double[n];
+		long layouts = 0;
+		int[] chosen = new int[mines]; //indices into unknown, ascending
+		for (int i = 0; i < mines; i++) {
+			chosen[i] = i;
+		}
+		boolean[] mine = new boolean[n];
+		while (true) {
+			Arrays.fill(mine, false);
+			for (int c : chosen) {
+				mine[unknown[c]] = true;
+			}
+			if (matches(board, mine)) {
+				layouts++;
+				for (int c : chosen) {
+					counts[unknown[c]]++;
+				}
+			}
+			int p = mines - 1;
+			while (p >= 0 && chosen[p] == unknown.length - mines + p) {
+				p--;
+			}
+			if (p < 0)
+				break;
+			chosen[p]++;
+			for (int q = p + 1; q < mines; q++) {
+				chosen[q] = chosen[q - 1] + 1;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			counts[i] /= layouts;
+		}
+		return counts;
+	}
+
+	//for every unopened cell next to an opened number: 1 if it's a mine in every layout that matches the numbers around it, 0 if it's
+	//safe in all of them, -1 otherwise. the total amount of mines is left out, just like the Solver does. other cells get -1 too
+	static int[] certainties(Board board) {
+		int n = board.size();
+		int[] frontier = frontier(board);
+		if (frontier.length > 24)
+			throw new IllegalArgumentException("Frontier too big to enumerate: " + frontier.length);
+		boolean[] mine = new boolean[n];
+		boolean[] ever = new boolean[n], never = new boolean[n]; //ever a mine, ever safe
+		for (long layout = 0; layout < 1L << frontier.length; layout++) {
+			for (int i = 0; i < frontier.length; i++) {
+				mine[frontier[i]] = (layout >>> i & 1) != 0;
+			}
+			if (!matches(board, mine))
+				continue;
+			for (int i = 0; i < frontier.length; i++) {
+				if (mine[frontier[i]])
+					ever[frontier[i]] = true;
+				else
+					never[frontier[i]] = true;
+			}
+		}
+		int[] certain = new int[n];
+		Arrays.fill(certain, -1);
+		for (int cell : frontier) {
+			if (ever[cell] && !never[cell])
+				certain[cell] = 1;
+			else if (never[cell] && !ever[cell])
+				certain[cell] = 0;
+		}
+		return certain;
+	}
+
+	static int[] unknown(Board board) {
+		IntList cells = new IntList();
+		for (int i = 0; i < board.size(); i++) {
+			if (!board.isRevealed(i))
+				cells.add(i);
+		}
+		return toArray(cells);
+	}
+
+	//unopened cells next to an opened number
+	static int[] frontier(Board board) {
+		IntList cells = new IntList();
+		for (int i = 0; i < board.size(); i++) {
+			if (board.isRevealed(i))
+				continue;
+			for (int neighbour : BoardTest.neighbours(board, i)) {
+				if (board.isRevealed(neighbour)) {
+					cells.add(i);
+					break;
+				}
+			}
+		}
+		return toArray(cells);
+	}
+
+	//whether every opened number has exactly that many mines around it
+	static boolean matches(Board board, boolean[] mine) {
+		for (int i = 0; i < board.size(); i++) {
+			if (!board.isRevealed(i))
+				continue;
+			int count = 0;
+			for (int neighbour : BoardTest.neighbours(board, i)) {
+				if (mine[neighbour])
+					count++;
+			}
+			if (count != board.getCount(i))
+				return false;
+		}
+		return true;
+	}
+
+	private static int[] toArray(IntList list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+}
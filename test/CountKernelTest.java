@@ -0,0 +1,52 @@
+/**
+ * Description: CountKernel tests
+ * The 8-at-a-time count has to give the same bytes as countScalar, on the heap and off it, at every width (including ones that
+ * aren't a multiple of 8) and on boards big enough to be counted in parallel stripes. The other bits of every cell must survive.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class CountKernelTest {
+	//random mines, random revealed and flag bits, and rubbish in the count bits for the count to overwrite
+	private static ByteBuffer randomCells(Random random, int size, double density, boolean direct) {
+		ByteBuffer cells = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+		for (int i = 0; i < size; i++) {
+			int cell = random.nextInt(16) | (random.nextDouble() < density ? Board.MINE : 0) | (random.nextInt(4) == 0 ? Board.REVEALED : 0) | (random.nextInt(8) == 0 ? Board.FLAG : 0);
+			cells.put(i, (byte) cell);
+		}
+		return cells;
+	}
+
+	private static void check(ByteBuffer cells, int cols, int rows, String what) {
+		ByteBuffer expected = ByteBuffer.allocate(cells.capacity());
+		expected.put(0, cells, 0, cells.capacity());
+		CountKernel.countScalar(expected, cols, rows);
+		CountKernel.count(cells, cols, rows);
+		assertEquals(-1, expected.mismatch(cells), what + ": first wrong cell is " + expected.mismatch(cells));
+	}
+
+	@Test
+	void matchesScalarCount() {
+		Random random = new Random(8);
+		int[][] sizes = {{1, 1}, {1, 50}, {50, 1}, {7, 7}, {8, 8}, {9, 9}, {15, 3}, {16, 16}, {17, 5}, {30, 16}, {63, 65}, {64, 64}, {100, 100}, {257, 31}};
+		for (int[] size : sizes) {
+			for (double density : new double[] {0, 0.15, 0.5, 1}) {
+				for (boolean direct : new boolean[] {false, true}) {
+					check(randomCells(random, size[0] * size[1], density, direct), size[0], size[1], size[0] + " x " + size[1] + " at " + density + (direct ? " off heap" : ""));
+				}
+			}
+		}
+	}
+
+	@Test
+	void matchesScalarCountInParallel() {
+		Random random = new Random(9);
+		int cols = 2051, rows = 2053; //over the size that gets split into stripes, with stripes that don't divide the rows evenly
+		check(randomCells(random, cols * rows, 0.2, false), cols, rows, "on the heap");
+		check(randomCells(random, cols * rows, 0.2, true), cols, rows, "off the heap");
+	}
+}
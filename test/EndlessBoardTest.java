@@ -0,0 +1,77 @@
+/**
+ * Description: EndlessBoard tests
+ * Plays the same moves on a board that can only hold 9 chunks, so it keeps evicting them to its ChunkStore and reading them back,
+ * and on one that never evicts anything, and checks that both show the same board.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class EndlessBoardTest {
+	private static final int SPREAD = 1000; //moves land within this far of the origin, so they cover hundreds of chunks
+
+	@Test
+	void evictedChunksComeBackTheSame() throws Exception {
+		long seed = 12;
+		try (EndlessBoard small = new EndlessBoard(seed, 0.2, 9, ChunkStore.temporary(EndlessBoard.CHUNK * EndlessBoard.CHUNK));
+				EndlessBoard big = new EndlessBoard(seed, 0.2, 1 << 16, ChunkStore.temporary(EndlessBoard.CHUNK * EndlessBoard.CHUNK))) {
+			Random random = new Random(seed);
+			List<int[]> moves = new ArrayList<>();
+			small.open(0, 0, null);
+			big.open(0, 0, null);
+			moves.add(new int[] {0, 0});
+			while (moves.size() < 400) {
+				int x = random.nextInt(2 * SPREAD) - SPREAD, y = random.nextInt(2 * SPREAD) - SPREAD;
+				if (small.isMine(x, y)) {
+					assertEquals(big.flag(x, y), small.flag(x, y));
+				} else {
+					assertEquals(big.open(x, y, null), small.open(x, y, null), "opening " + x + ", " + y);
+				}
+				moves.add(new int[] {x, y});
+			}
+			assertTrue(small.getStoredChunks() > 9, "only " + small.getStoredChunks() + " chunks were ever evicted");
+			assertEquals(0, big.getStoredChunks());
+			assertEquals(big.getCellsOpened(), small.getCellsOpened());
+			assertEquals(big.getFlags(), small.getFlags());
+			for (int[] move : moves) { //around every move, including chunks that were evicted long ago
+				for (int dy = -3; dy <= 3; dy++) {
+					for (int dx = -3; dx <= 3; dx++) {
+						int x = move[0] + dx, y = move[1] + dy;
+						assertEquals(big.view(x, y), small.view(x, y), "cell " + x + ", " + y);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void chunkStoreKeepsRevealedAndFlagBits() throws Exception {
+		int cells = EndlessBoard.CHUNK * EndlessBoard.CHUNK;
+		Random random = new Random(3);
+		try (ChunkStore store = ChunkStore.temporary(cells)) {
+			Map<Long, byte[]> written = new HashMap<>();
+			for (int round = 0; round < 3; round++) { //later rounds overwrite the records of the first
+				for (long key = 0; key < 20; key++) {
+					byte[] chunk = new byte[cells];
+					for (int i = 0; i < cells; i++) {
+						chunk[i] = (byte) (random.nextInt(16) | (random.nextBoolean() ? Board.MINE : 0) | (random.nextInt(3) == 0 ? Board.REVEALED : 0) | (random.nextInt(5) == 0 ? Board.FLAG : 0));
+					}
+					store.write(key, chunk);
+					written.put(key, chunk);
+				}
+			}
+			assertEquals(20, store.size());
+			for (Map.Entry<Long, byte[]> entry : written.entrySet()) {
+				byte[] expected = entry.getValue(), read = new byte[cells];
+				for (int i = 0; i < cells; i++) {
+					read[i] = (byte) (expected[i] & (Board.COUNT_MASK | Board.MINE)); //what regenerating the chunk gives
+				}
+				assertTrue(store.read(entry.getKey(), read));
+				assertArrayEquals(expected, read, "chunk " + entry.getKey());
+			}
+			assertFalse(store.read(99, new byte[cells]));
+		}
+	}
+}
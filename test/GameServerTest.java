@@ -0,0 +1,119 @@
+/**
+ * Description: GameServer tests
+ * Speaks the protocol over plain streams (see playLocal) and checks every reply against a Board playing the same moves.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class GameServerTest {
+	private static final int MAX_CELLS = 10000;
+
+	//the replies to commands, one per line
+	private static List<String> talk(String... commands) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GameServer.playLocal(new ByteArrayInputStream((String.join("\n", commands) + "\n").getBytes(StandardCharsets.US_ASCII)), out, MAX_CELLS);
+		return Arrays.asList(out.toString(StandardCharsets.US_ASCII).split("\n"));
+	}
+
+	//the cells of a DELTA reply, by index, after checking its status and mines left
+	private static Map<Integer, Integer> delta(String reply, Board board) {
+		String[] words = reply.split(" ");
+		assertEquals("DELTA", words[0], reply);
+		assertEquals(board.isSolved() ? "WON" : board.isDead() ? "LOST" : "PLAYING", words[1], reply);
+		assertEquals(board.getMinesLeft(), Integer.parseInt(words[2]), reply);
+		int n = Integer.parseInt(words[3]);
+		assertEquals(4 + 3 * n, words.length, reply);
+		Map<Integer, Integer> cells = new HashMap<>();
+		for (int i = 0; i < n; i++) {
+			int x = Integer.parseInt(words[4 + 3 * i]), y = Integer.parseInt(words[5 + 3 * i]);
+			assertNull(cells.put(y * board.getCols() + x, Integer.parseInt(words[6 + 3 * i])), "cell listed twice in " + reply);
+		}
+		return cells;
+	}
+
+	//every cell that doesn't show as unopened, with what it shows
+	private static Map<Integer, Integer> shown(Board board) {
+		Map<Integer, Integer> cells = new HashMap<>();
+		for (int i = 0; i < board.size(); i++) {
+			if (board.view(i) != Board.UNOPENED)
+				cells.put(i, board.view(i));
+		}
+		return cells;
+	}
+
+	private static int mine(Board board, boolean wanted) {
+		int cell = 0;
+		while (board.isMine(cell) != wanted || board.isRevealed(cell)) {
+			cell++;
+		}
+		return cell;
+	}
+
+	@Test
+	void playsTheSameGameAsABoard() throws IOException {
+		Board ahead = new Board(9, 9, 10, 42); //works out which cells to play
+		ahead.open(4 * 9 + 4);
+		int flag = mine(ahead, true), open = mine(ahead, false);
+		List<String> replies = talk("NEW 9 9 10 42", "OPEN 4 4", "FLAG " + flag % 9 + " " + flag / 9, "open " + open % 9 + " " + open / 9, "BOARD", "STATS", "QUIT", "BOARD");
+		assertEquals(7, replies.size(), "nothing after QUIT gets answered: " + replies);
+		assertEquals("GAME 9 9 10 42", replies.get(0));
+		Board board = new Board(9, 9, 10, 42);
+		board.open(4 * 9 + 4);
+		Map<Integer, Integer> moved = new HashMap<>(delta(replies.get(1), board));
+		assertEquals(shown(board), moved);
+		board.flag(flag);
+		assertEquals(Map.of(flag, Board.SHOWN_FLAG), delta(replies.get(2), board));
+		moved.put(flag, Board.SHOWN_FLAG);
+		board.open(open);
+		moved.putAll(delta(replies.get(3), board));
+		assertEquals(shown(board), moved, "every move only listed the cells it changed");
+		assertEquals(shown(board), delta(replies.get(4), board));
+		assertEquals("STATS 1 1 3", replies.get(5));
+		assertEquals("BYE", replies.get(6));
+	}
+
+	@Test
+	void chordsAndUnflags() throws IOException {
+		Board board = new Board(16, 16, 40, 7);
+		board.open(8 * 16 + 8);
+		int flag = mine(board, true);
+		List<String> replies = talk("NEW 16 16 40 7", "OPEN 8 8", "FLAG " + flag % 16 + " " + flag / 16, "FLAG " + flag % 16 + " " + flag / 16, "CHORD 8 8");
+		board.flag(flag);
+		assertEquals(Map.of(flag, Board.SHOWN_FLAG), delta(replies.get(2), board));
+		board.flag(flag);
+		assertEquals(Map.of(flag, Board.UNOPENED), delta(replies.get(3), board));
+		assertEquals(Map.of(), delta(replies.get(4), board), "chording an empty cell does nothing");
+	}
+
+	@Test
+	void losingShowsEveryMine() throws IOException {
+		Board board = new Board(9, 9, 10, 3);
+		board.open(0);
+		int mine = mine(board, true);
+		List<String> replies = talk("NEW 9 9 10 3", "OPEN 0 0", "OPEN " + mine % 9 + " " + mine / 9);
+		board.open(mine);
+		Map<Integer, Integer> cells = delta(replies.get(2), board);
+		for (int i = 0; i < board.size(); i++) {
+			if (board.isMine(i))
+				assertEquals(board.view(i), cells.get(i), "mine " + i);
+		}
+	}
+
+	@Test
+	void mistakesGetErrorsAndTheSessionCarriesOn() throws IOException {
+		List<String> replies = talk("OPEN 1 1", "BOARD", "NEW 9 9", "NEW 200 200 10", "NEW 9 9 81", "NEW 9 9 x", "JUMP", "NEW 9 9 10 1", "OPEN 9 0", "OPEN 1", "FLAG 1 1 1 1 1", "BOARD");
+		for (int i = 0; i < 7; i++) {
+			assertTrue(replies.get(i).startsWith("ERR "), replies.get(i));
+		}
+		assertEquals("GAME 9 9 10 1", replies.get(7));
+		for (int i = 8; i < 11; i++) {
+			assertTrue(replies.get(i).startsWith("ERR "), replies.get(i));
+		}
+		assertEquals("DELTA PLAYING 10 0", replies.get(11));
+	}
+}
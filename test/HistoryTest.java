@@ -0,0 +1,123 @@
+/**
+ * Description: History tests
+ * Plays random games with undo and redo while remembering what the board looked like after every journal entry, then checks
+ * that undo, redo and replaying the journal (going to entries back and forth at random) all come back to the same boards.
+ * Snapshots taken late, after more moves have been made, must not change any of that.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.Test;
+
+class HistoryTest {
+	private static int[] view(Board board) {
+		int[] view = new int[board.size()];
+		for (int i = 0; i < view.length; i++) {
+			view[i] = board.view(i);
+		}
+		return view;
+	}
+
+	//plays games into journal, checking undo and redo along the way. returns the board as it looked after every entry, by journal size
+	private static Map<Integer, int[]> play(Journal journal, Random random, int games, int actions, Executor later) {
+		History history = new History(journal, later);
+		Map<Integer, int[]> seen = new HashMap<>();
+		for (int game = 0; game < games; game++) {
+			Board board = new Board(30, 16, 99, random.nextLong());
+			if (random.nextBoolean())
+				board.pregenerate();
+			history.startGame(board);
+			List<int[]> line = new ArrayList<>(); //the board after each move of the line, starting with no moves
+			line.add(view(board));
+			int position = 0;
+			seen.put(journal.size(), view(board));
+			for (int action = 0; action < actions; action++) {
+				int cell = random.nextInt(board.size()), roll = random.nextInt(10);
+				if (roll < 2) {
+					if (history.undo()) {
+						position--;
+						assertArrayEquals(line.get(position), view(board), "undo in game " + game + ", action " + action);
+					}
+				} else if (roll < 3) {
+					if (history.redo()) {
+						position++;
+						assertArrayEquals(line.get(position), view(board), "redo in game " + game + ", action " + action);
+					}
+				} else {
+					boolean moved;
+					if (roll < 6)
+						moved = board.flag(cell);
+					else if (roll < 8 || board.view(cell) < 0)
+						moved = board.open(cell) > 0;
+					else
+						moved = board.chord(cell) > 0;
+					if (moved) {
+						line.subList(position + 1, line.size()).clear();
+						line.add(view(board));
+						position++;
+					}
+				}
+				seen.put(journal.size(), view(board));
+			}
+		}
+		return seen;
+	}
+
+	@Test
+	void undoRedoAndReplayAgree() {
+		Random random = new Random(5);
+		Journal journal = new Journal();
+		Map<Integer, int[]> seen = play(journal, random, 4, 600, Runnable::run);
+
+		History replay = History.replay(journal);
+		for (int entry = 0; entry <= journal.size(); entry++) { //straight through, one entry at a time
+			replay.playTo(entry);
+			if (seen.containsKey(entry))
+				assertArrayEquals(seen.get(entry), view(replay.getBoard()), "playing forward to " + entry);
+		}
+		List<Integer> entries = new ArrayList<>(seen.keySet());
+		for (int seek = 0; seek < 300; seek++) { //then jumping around, back and forth
+			int entry = entries.get(random.nextInt(entries.size()));
+			replay.playTo(entry);
+			assertArrayEquals(seen.get(entry), view(replay.getBoard()), "seeking to " + entry);
+		}
+	}
+
+	@Test
+	void lateSnapshotsChangeNothing() {
+		Random random = new Random(6);
+		List<Runnable> queued = new ArrayList<>();
+		Executor later = task -> {
+			queued.add(task);
+			if (random.nextInt(3) == 0) { //sometimes right away, sometimes a few moves on
+				List<Runnable> due = new ArrayList<>(queued);
+				queued.clear();
+				due.forEach(Runnable::run);
+			}
+		};
+		Journal journal = new Journal();
+		Map<Integer, int[]> seen = play(journal, random, 3, 800, later);
+		History replay = History.replay(journal);
+		for (int entry : seen.keySet()) {
+			replay.playTo(entry);
+			assertArrayEquals(seen.get(entry), view(replay.getBoard()), "seeking to " + entry);
+		}
+	}
+
+	@Test
+	void resumedGamesKeepTheirStart() {
+		Board board = new Board(16, 16, 40, 9);
+		board.open(8 * 16 + 8);
+		int[] start = view(board);
+		History history = new History(new Journal());
+		history.startGame(board); //already being played, so it's journaled as resumed
+		assertFalse(history.canUndo());
+		for (int cell = 0; cell < board.size() && !history.canUndo(); cell++) {
+			board.flag(cell);
+		}
+		assertTrue(history.undo());
+		assertArrayEquals(start, view(board));
+	}
+}
@@ -0,0 +1,53 @@
+/**
+ * Description: NoGuessGenerator tests
+ * The search has to find the same board for the same seed however many threads it runs on: the first solvable attempt, which is
+ * what trying the attempts one by one finds too.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class NoGuessGeneratorTest {
+	private static final long BUDGET = 60000; //far more than needed, so time never cuts a search short
+
+	@Test
+	void sameSeedGivesTheSameBoard() {
+		int cols = 16, rows = 16, mines = 40, click = 8 * 16 + 8;
+		ForkJoinPool one = new ForkJoinPool(1), four = new ForkJoinPool(4);
+		try {
+			for (long root = 0; root < 5; root++) {
+				long attempt = 0;
+				while (!NoGuessGenerator.isSolvable(new Board(cols, rows, mines, NoGuessGenerator.attemptSeed(root, attempt)), click)) {
+					attempt++;
+				}
+				long expected = NoGuessGenerator.attemptSeed(root, attempt);
+				NoGuessGenerator.Result serial = new NoGuessGenerator(one).generate(cols, rows, mines, click, root, BUDGET);
+				NoGuessGenerator.Result parallel = new NoGuessGenerator(four).generate(cols, rows, mines, click, root, BUDGET);
+				assertTrue(serial.found && parallel.found, "root seed " + root);
+				assertEquals(expected, serial.seed, "root seed " + root + " on one thread");
+				assertEquals(expected, parallel.seed, "root seed " + root + " on four threads");
+				assertEquals(attempt, serial.rerolls, "root seed " + root + " on one thread");
+				assertEquals(attempt, parallel.rerolls, "root seed " + root + " on four threads");
+			}
+		} finally {
+			one.shutdown();
+			four.shutdown();
+		}
+	}
+
+	@Test
+	void foundBoardsNeedNoGuess() {
+		NoGuessGenerator generator = new NoGuessGenerator();
+		for (long root = 10; root < 15; root++) {
+			NoGuessGenerator.Result result = generator.generate(30, 16, 99, 8 * 30 + 15, root, 10000);
+			if (!result.found)
+				continue; //expert boards can take a while, and that's not what this checks
+			Board board = new Board(30, 16, 99, result.seed);
+			board.open(8 * 30 + 15);
+			new Solver(board).autoPlay(null);
+			assertTrue(board.isSolved(), "root seed " + root);
+		}
+	}
+}
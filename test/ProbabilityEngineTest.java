@@ -0,0 +1,50 @@
+/**
+ * Description: ProbabilityEngine tests
+ * Checks the heatmap against counting every layout of the mines, on small random positions where the engine counts exactly.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class ProbabilityEngineTest {
+	private static final double TOLERANCE = 1e-5; //results are floats
+
+	@Test
+	void matchesBruteForce() throws Exception {
+		Random random = new Random(1);
+		int tested = 0;
+		for (int trial = 0; trial < 200; trial++) {
+			Board board = SolverTest.position(random, 5 + random.nextInt(2), 5, 4 + random.nextInt(4), random.nextInt(3));
+			if (board == null)
+				continue;
+			ProbabilityEngine.Result result = new ProbabilityEngine(board).compute(new Solver(board), 5000).get();
+			assertTrue(result.isExact(), "trial " + trial + " was estimated");
+			double[] expected = BruteForce.probabilities(board);
+			for (int cell = 0; cell < board.size(); cell++) {
+				if (!board.isRevealed(cell))
+					assertEquals(expected[cell], result.probability(cell), TOLERANCE, "cell " + cell + " of trial " + trial);
+			}
+			tested++;
+		}
+		assertTrue(tested > 50, "only " + tested + " positions were still being played");
+	}
+
+	@Test
+	void probabilitiesAddUpToTheMinesLeft() throws Exception {
+		Random random = new Random(2);
+		for (int trial = 0; trial < 50; trial++) {
+			Board board = SolverTest.position(random, 30, 16, 99, 5);
+			if (board == null)
+				continue;
+			ProbabilityEngine.Result result = new ProbabilityEngine(board).compute(new Solver(board), 5000).get();
+			double sum = 0;
+			for (int cell = 0; cell < board.size(); cell++) {
+				if (!board.isRevealed(cell))
+					sum += result.probability(cell);
+			}
+			assertEquals(board.getMineCount(), sum, 0.01 * board.getMineCount(), "trial " + trial);
+		}
+	}
+}
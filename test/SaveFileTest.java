@@ -0,0 +1,116 @@
+/**
+ * Description: SaveFile tests
+ * A save has to reopen as the same game, including moves that reached the cells after the last checkpoint, and a board that
+ * was shown with revealAll has to keep the state it had instead of reopening as lost.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.*;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SaveFileTest {
+	@TempDir
+	Path dir;
+
+	private static void assertSameGame(Board expected, Board actual) {
+		assertEquals(expected.getCols(), actual.getCols());
+		assertEquals(expected.getRows(), actual.getRows());
+		assertEquals(expected.getMineCount(), actual.getMineCount());
+		assertEquals(expected.getSeed(), actual.getSeed());
+		assertEquals(expected.getMinesLeft(), actual.getMinesLeft(), "mines left");
+		assertEquals(expected.getCellsOpened(), actual.getCellsOpened(), "cells opened");
+		assertEquals(expected.isDead(), actual.isDead(), "dead");
+		assertEquals(expected.isSolved(), actual.isSolved(), "solved");
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getCell(i), actual.getCell(i), "cell " + i);
+		}
+	}
+
+	//opens and flags safe cells at random, the same way on both boards
+	private static void play(Random random, int moves, Board... boards) {
+		Board first = boards[0];
+		for (int move = 0; move < moves && !first.isOver(); move++) {
+			int cell = random.nextInt(first.size());
+			boolean flag = first.isMine(cell) && first.isGenerated();
+			for (Board board : boards) {
+				if (flag)
+					board.flag(cell);
+				else if (!board.isMine(cell))
+					board.open(cell);
+			}
+		}
+	}
+
+	@Test
+	void reopensTheSameGame() throws Exception {
+		Path path = dir.resolve("game.save");
+		Board board = new Board(30, 16, 99, 5);
+		board.open(8 * 30 + 15);
+		play(new Random(5), 40, board);
+		try (SaveFile save = SaveFile.create(path, board, 123456, 2)) {
+			assertSameGame(board, save.getBoard());
+		}
+		try (SaveFile save = SaveFile.open(path)) {
+			assertSameGame(board, save.getBoard());
+			assertEquals(123456, save.getTime());
+			assertEquals(2, save.getDifficulty());
+		}
+	}
+
+	@Test
+	void movesAfterTheCheckpointAreCounted() throws Exception {
+		Path path = dir.resolve("game.save");
+		Board board = new Board(16, 16, 40, 6);
+		board.open(8 * 16 + 8);
+		try (SaveFile save = SaveFile.create(path, board, 0, 1)) {
+			play(new Random(6), 60, board, save.getBoard()); //no checkpoint, so only the cells know about these
+		}
+		try (SaveFile save = SaveFile.open(path)) {
+			assertSameGame(board, save.getBoard());
+		}
+	}
+
+	@Test
+	void lostGamesReopenLost() throws Exception {
+		Path path = dir.resolve("game.save");
+		Board board = new Board(9, 9, 10, 7);
+		board.open(40);
+		try (SaveFile save = SaveFile.create(path, board, 0, 0)) {
+			int mine = 0;
+			while (!board.isMine(mine)) {
+				mine++;
+			}
+			board.open(mine);
+			save.getBoard().open(mine);
+			assertTrue(board.isDead());
+		}
+		try (SaveFile save = SaveFile.open(path)) {
+			assertSameGame(board, save.getBoard());
+		}
+	}
+
+	@Test
+	void revealedBoardsDontReopenLost() throws Exception {
+		Path path = dir.resolve("game.save");
+		Board board = new Board(9, 9, 10, 8);
+		board.open(40);
+		board.revealAll();
+		try (SaveFile save = SaveFile.create(path, board, 0, 0)) {
+			assertSameGame(board, save.getBoard());
+		}
+		try (SaveFile save = SaveFile.open(path)) {
+			assertSameGame(board, save.getBoard());
+			assertFalse(save.getBoard().isDead());
+		}
+	}
+
+	@Test
+	void otherFilesAreRefused() throws Exception {
+		Path path = dir.resolve("other.save");
+		Files.write(path, new byte[100]);
+		assertThrows(java.io.IOException.class, () -> SaveFile.open(path));
+	}
+}
@@ -0,0 +1,48 @@
+/**
+ * Description: SimulationRunner tests
+ * The same arguments have to give the same games on any amount of threads, and the JSON lines have to stay valid JSON whatever
+ * the config is called.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class SimulationRunnerTest {
+	private static String run(int threads, boolean json, SimulationRunner.Config config) throws Exception {
+		StringWriter out = new StringWriter();
+		SimulationRunner runner = new SimulationRunner(600, 42, Player.forName("solver"), threads, json, true, out);
+		try {
+			runner.run(List.of(config));
+		} finally {
+			runner.close();
+		}
+		return out.toString();
+	}
+
+	//every line, without the timings at the end of the summaries
+	private static List<String> games(String output) {
+		List<String> lines = new ArrayList<>();
+		for (String line : output.split("\n")) {
+			lines.add(line.startsWith("summary,") ? line.substring(0, line.lastIndexOf(',', line.lastIndexOf(',') - 1)) : line); //games_per_sec and seconds go
+		}
+		return lines;
+	}
+
+	@Test
+	void sameGamesOnAnyAmountOfThreads() throws Exception {
+		SimulationRunner.Config config = SimulationRunner.Config.parse("medium");
+		assertEquals(games(run(1, false, config)), games(run(3, false, config)));
+	}
+
+	@Test
+	void configNamesAreQuotedInJson() throws Exception {
+		assertEquals("\"a\\\"b\\\\c\\u000a\"", SimulationRunner.quote("a\"b\\c\n"));
+		String output = run(2, true, new SimulationRunner.Config("say \"hi\" \\", 9, 9, 10));
+		for (String line : output.split("\n")) {
+			assertTrue(line.contains("\"config\":\"say \\\"hi\\\" \\\\\""), line);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ * Description: Solver tests
+ * Checks what the Solver works out against trying every layout of the mines, on lots of small random positions. The Solver only
+ * uses the total amount of mines as a limit for each frontier component, so it has to find at least everything the numbers alone
+ * give away, and can never claim anything that isn't true of every layout with the right amount of mines.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class SolverTest {
+	//a random position on a small board: the first click, then a few more safe cells opened at random. null if the game is already over
+	static Board position(Random random, int cols, int rows, int mines, int extraOpens) {
+		Board board = new Board(cols, rows, mines, random.nextLong());
+		board.open(random.nextInt(board.size()));
+		for (int i = 0; i < extraOpens && !board.isOver(); i++) {
+			int cell;
+			do {
+				cell = random.nextInt(board.size());
+			} while (board.isRevealed(cell) || board.isMine(cell));
+			board.open(cell);
+		}
+		return board.isOver() ? null : board;
+	}
+
+	@Test
+	void agreesWithBruteForce() {
+		Random random = new Random(7);
+		int tested = 0;
+		for (int trial = 0; trial < 250; trial++) {
+			Board board = position(random, 5 + random.nextInt(2), 5 + random.nextInt(2), 4 + random.nextInt(5), random.nextInt(3));
+			if (board == null || BruteForce.frontier(board).length > Solver.MAX_ENUMERATION)
+				continue;
+			Solver solver = new Solver(board);
+			while (solver.solve()) {
+				//keep going until nothing more can be worked out
+			}
+			int[] certain = BruteForce.certainties(board);
+			double[] probabilities = BruteForce.probabilities(board);
+			for (int cell = 0; cell < board.size(); cell++) {
+				if (board.isRevealed(cell))
+					continue;
+				String where = " at " + cell + " of trial " + trial;
+				if (certain[cell] == 1)
+					assertTrue(solver.isCertainlyMine(cell), "missed a mine" + where);
+				if (certain[cell] == 0)
+					assertTrue(solver.isCertainlySafe(cell), "missed a safe cell" + where);
+				if (solver.isCertainlyMine(cell))
+					assertEquals(1, probabilities[cell], 1e-9, "wrong mine" + where);
+				if (solver.isCertainlySafe(cell))
+					assertEquals(0, probabilities[cell], 1e-9, "wrong safe cell" + where);
+			}
+			tested++;
+		}
+		assertTrue(tested > 100, "only " + tested + " positions were small enough");
+	}
+
+	@Test
+	void autoPlayOnlyOpensSafeCells() {
+		Random random = new Random(11);
+		for (int game = 0; game < 200; game++) {
+			Board board = new Board(16, 16, 40, random.nextLong());
+			board.open(8 * 16 + 8);
+			new Solver(board).autoPlay(null);
+			assertFalse(board.isDead(), "auto play hit a mine in game " + game);
+		}
+	}
+}